@@ -0,0 +1,33 @@
+package org.example.blog.benchmark;
+
+import org.example.blog.model.Comment;
+import org.example.blog.model.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Post post(int commentCount) {
+        Post post = new Post();
+        post.setId(1L);
+        post.setVersion(0L);
+        post.setTitle("Benchmark post");
+        post.setContent("Content of a post used to benchmark mapping and serialization.");
+
+        List<Comment> comments = new ArrayList<>(commentCount);
+        for (long i = 1; i <= commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId(i);
+            comment.setVersion(0L);
+            comment.setContent("Comment number " + i + " on the benchmark post.");
+            comment.setPost(post);
+            comments.add(comment);
+        }
+        post.setComments(comments);
+        return post;
+    }
+}
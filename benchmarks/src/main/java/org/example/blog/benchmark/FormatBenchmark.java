@@ -0,0 +1,93 @@
+package org.example.blog.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.blog.dto.PostDto;
+import org.example.blog.mapper.PostMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding a {@link PostDto} as JSON, Smile and CBOR, with mappers built the way the
+ * application builds them. The payload size of each format, and of gzip-compressed JSON, is printed
+ * once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int commentCount;
+
+    private ObjectMapper objectMapper;
+
+    private PostDto postDto;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "smile":
+                builder.factory(new SmileFactory());
+                break;
+            case "cbor":
+                builder.factory(new CBORFactory());
+                break;
+            default:
+                break;
+        }
+        objectMapper = builder.build();
+        postDto = PostMapper.toDto(Fixtures.post(commentCount));
+        encoded = objectMapper.writeValueAsBytes(postDto);
+
+        String sizes = "payload " + format + " with " + commentCount + " comments: " + encoded.length + " bytes";
+        if ("json".equals(format)) {
+            sizes += ", " + gzip(encoded).length + " bytes gzipped";
+        }
+        System.out.println(sizes);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(postDto);
+    }
+
+    @Benchmark
+    public PostDto decode() throws IOException {
+        return objectMapper.readValue(encoded, PostDto.class);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.blog.benchmark;
+
+import org.example.blog.dto.CommentDto;
+import org.example.blog.dto.PostDto;
+import org.example.blog.model.Comment;
+import org.example.blog.model.Post;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * MapStruct counterpart of {@link org.example.blog.mapper.PostMapper#toDto}, generated at compile time.
+ */
+@Mapper
+public interface MapStructPostMapper {
+
+    MapStructPostMapper INSTANCE = Mappers.getMapper(MapStructPostMapper.class);
+
+    PostDto toDto(Post post);
+
+    CommentDto toDto(Comment comment);
+}
@@ -0,0 +1,50 @@
+package org.example.blog.benchmark;
+
+import org.example.blog.dto.PostDto;
+import org.example.blog.mapper.PostMapper;
+import org.example.blog.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping, hand-written {@link PostMapper} against {@link MapStructPostMapper}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"0", "100", "10000"})
+    private int commentCount;
+
+    private Post post;
+
+    @Setup
+    public void setUp() {
+        post = Fixtures.post(commentCount);
+    }
+
+    @Benchmark
+    public PostDto handWritten() {
+        return PostMapper.toDto(post);
+    }
+
+    @Benchmark
+    public PostDto mapStruct() {
+        return MapStructPostMapper.INSTANCE.toDto(post);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.blog.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.blog.exception.ErrorBodies;
+import org.example.blog.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The not-found path for a flood of misses on random ids, from the service throwing to the response
+ * body bytes. {@code rethrow} is the old path: an exception with a stack trace, caught by the
+ * controller and thrown again with the id in its message, then a fresh error map serialized by the
+ * object mapper. {@code stackless} is the current one. {@code depth} is the number of frames between
+ * the throw and the handler, roughly what Tomcat, the filters, Spring MVC and the service proxies add.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotFoundBenchmark {
+
+    @Param({"30", "150"})
+    private int depth;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] rethrow() throws JsonProcessingException {
+        long id = ThreadLocalRandom.current().nextLong(1_000_000);
+        try {
+            try {
+                call(depth, () -> {
+                    throw new StackTraceNotFoundException("Post not found");
+                });
+            } catch (StackTraceNotFoundException ex) {
+                throw new StackTraceNotFoundException("Post with id " + id + " not found.");
+            }
+        } catch (StackTraceNotFoundException ex) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Not Found");
+            errorResponse.put("message", ex.getMessage());
+            return objectMapper.writeValueAsBytes(errorResponse);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public byte[] stackless() {
+        long id = ThreadLocalRandom.current().nextLong(1_000_000);
+        try {
+            call(depth, () -> {
+                throw ResourceNotFoundException.post(id);
+            });
+        } catch (ResourceNotFoundException ex) {
+            return ErrorBodies.notFound(ex);
+        }
+        return null;
+    }
+
+    private static void call(int depth, Runnable miss) {
+        if (depth == 0) {
+            miss.run();
+        } else {
+            call(depth - 1, miss);
+        }
+    }
+
+    private static class StackTraceNotFoundException extends RuntimeException {
+        StackTraceNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
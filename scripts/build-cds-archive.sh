@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Builds an AppCDS archive for the fast-startup profile.
+#
+# The executable jar is unpacked to target/cds and the application classes are repacked into
+# target/cds/app.jar, so everything is loaded from plain jars on the class path (classes from nested
+# jars or from directories cannot be archived). A training run starts the application
+# with the fast-startup profile, exits as soon as it is ready and dumps the loaded classes to
+# target/cds/app.jsa. The training run needs the same database settings as a normal start, for
+# example through SPRING_DATASOURCE_URL. Requires JDK 13 or newer.
+#
+# Start with the archive:
+#   java -XX:SharedArchiveFile=target/cds/app.jsa -Dspring.profiles.active=fast-startup \
+#        -cp "target/cds/app.jar:target/cds/BOOT-INF/lib/*" org.example.blog.BlogApplication
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=target/blog-0.0.1-SNAPSHOT-exec.jar
+OUT=target/cds
+
+# always rebuilt: the archive needs the component index, which only the fast-startup build generates
+./mvnw -B -q package -DskipTests -Pfast-startup
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+(cd "$OUT" && jar -xf "../../$JAR")
+jar -cf "$OUT/app.jar" -C "$OUT/BOOT-INF/classes" .
+
+java -XX:ArchiveClassesAtExit="$OUT/app.jsa" \
+     -Dspring.profiles.active=fast-startup \
+     -Dblog.startup.exit-after-ready=true \
+     -cp "$OUT/app.jar:$OUT/BOOT-INF/lib/*" \
+     org.example.blog.BlogApplication "$@"
+
+echo "CDS archive written to $OUT/app.jsa"
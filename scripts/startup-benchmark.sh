@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Measures time to first request: from launching the JVM until GET /posts?limit=1 answers 200.
+# Compares the default profile, the fast-startup profile and fast-startup with the CDS archive
+# built by build-cds-archive.sh (skipped if the archive is missing). Database settings are taken
+# from the environment, e.g. SPRING_DATASOURCE_URL. Extra JVM options can be given in JAVA_OPTS.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+OUT=target/cds
+CP="$OUT/app.jar:$OUT/BOOT-INF/lib/*"
+
+if [ ! -f "$OUT/app.jar" ]; then
+  echo "Run scripts/build-cds-archive.sh first to unpack the application" >&2
+  exit 1
+fi
+
+measure() {
+  local label=$1
+  shift
+  local total=0
+  for _ in $(seq "$RUNS"); do
+    local start end
+    start=$(date +%s%N)
+    # shellcheck disable=SC2086
+    java ${JAVA_OPTS:-} "$@" -Dserver.port="$PORT" -cp "$CP" org.example.blog.BlogApplication >/dev/null 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/posts?limit=1"; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$label: application exited before serving a request" >&2
+        return 1
+      fi
+      sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    total=$((total + (end - start) / 1000000))
+  done
+  printf "%-28s %6d ms (mean of %d)\n" "$label" $((total / RUNS)) "$RUNS"
+}
+
+measure "default" -Dspring.profiles.active=default
+measure "fast-startup" -Dspring.profiles.active=fast-startup
+if [ -f "$OUT/app.jsa" ]; then
+  measure "fast-startup + CDS" -XX:SharedArchiveFile="$OUT/app.jsa" -Dspring.profiles.active=fast-startup
+fi
@@ -0,0 +1,76 @@
+package org.example.blog.async;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the value of a {@link CompletableFuture} that is already complete during the same dispatch,
+ * as if the handler had returned it directly. Without this every handler returning a future would go
+ * through a second, asynchronous dispatch even when {@link JdbcExecutor} runs work inline. Futures
+ * that are still running or failed are left to Spring's own asynchronous handling.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandlerComposite delegates = new HandlerMethodReturnValueHandlerComposite();
+
+    public CompletedFutureReturnValueHandler(List<HandlerMethodReturnValueHandler> delegates) {
+        this.delegates.addHandlers(delegates);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+            delegates.handleReturnValue(future.join(), new ResultMethodParameter(returnType), mavContainer, webRequest);
+        } else {
+            delegates.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+        }
+    }
+
+    /**
+     * The handler's return type with the {@code CompletableFuture} peeled off.
+     */
+    private static final class ResultMethodParameter extends MethodParameter {
+
+        private final ResolvableType resultType;
+
+        ResultMethodParameter(MethodParameter returnType) {
+            super(returnType);
+            this.resultType = ResolvableType.forMethodParameter(returnType).getGeneric();
+        }
+
+        private ResultMethodParameter(ResultMethodParameter original) {
+            super(original);
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType.getType();
+        }
+
+        @Override
+        public ResultMethodParameter clone() {
+            return new ResultMethodParameter(this);
+        }
+    }
+}
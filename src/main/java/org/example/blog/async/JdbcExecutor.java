@@ -0,0 +1,98 @@
+package org.example.blog.async;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.example.blog.exception.ServiceUnavailableException;
+import org.example.blog.metrics.JdbcRequestStats;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs controller work that talks to the database on a pool sized to the connection pool, so Tomcat
+ * threads are released while queries run and slow requests queue here instead of holding workers.
+ * A full queue answers 503 right away, and work that waited longer than the request timeout is
+ * dropped without touching the database. When disabled, work runs on the calling thread and the
+ * returned future is already complete.
+ */
+@Component
+public class JdbcExecutor implements DisposableBean {
+
+    private final boolean enabled;
+
+    private final long timeoutNanos;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejected;
+
+    private final Counter expired;
+
+    public JdbcExecutor(MeterRegistry meterRegistry,
+                        @Value("${blog.async.enabled:false}") boolean enabled,
+                        @Value("${blog.async.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                        @Value("${blog.async.queue-capacity:100}") int queueCapacity,
+                        @Value("${blog.async.timeout-ms:10000}") long timeoutMs) {
+        this.enabled = enabled;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.rejected = Counter.builder("blog.async.rejected")
+                .description("Requests turned away because the JDBC executor queue was full")
+                .register(meterRegistry);
+        this.expired = Counter.builder("blog.async.expired")
+                .description("Requests dropped because they waited in the JDBC executor queue past the timeout")
+                .register(meterRegistry);
+        if (enabled) {
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("jdbc-"));
+            new ExecutorServiceMetrics(executor, "blog.async.jdbc", Tags.empty()).bindTo(meterRegistry);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(work.get());
+        }
+        JdbcRequestStats stats = JdbcRequestStats.current();
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() - deadline > 0) {
+                    expired.increment();
+                    throw new ServiceUnavailableException("Request timed out waiting for the database");
+                }
+                JdbcRequestStats.resume(stats);
+                try {
+                    return work.get();
+                } finally {
+                    JdbcRequestStats.end();
+                }
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many requests are waiting for the database");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
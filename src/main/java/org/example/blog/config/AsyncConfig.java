@@ -0,0 +1,37 @@
+package org.example.blog.config;
+
+import org.example.blog.async.CompletedFutureReturnValueHandler;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Puts {@link CompletedFutureReturnValueHandler} ahead of the built-in handlers, which would
+     * otherwise claim every {@code CompletableFuture} for asynchronous processing.
+     */
+    @Bean
+    public static BeanPostProcessor completedFutureReturnValueHandlerRegistrar() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter) {
+                    RequestMappingHandlerAdapter adapter = (RequestMappingHandlerAdapter) bean;
+                    List<HandlerMethodReturnValueHandler> defaults = adapter.getReturnValueHandlers();
+                    List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(defaults.size() + 1);
+                    handlers.add(new CompletedFutureReturnValueHandler(defaults));
+                    handlers.addAll(defaults);
+                    adapter.setReturnValueHandlers(handlers);
+                }
+                return bean;
+            }
+        };
+    }
+}
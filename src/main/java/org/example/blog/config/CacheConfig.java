@@ -0,0 +1,20 @@
+package org.example.blog.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the Caffeine-backed cache configured through {@code spring.cache.*}. Cache statistics are
+ * published by actuator under {@code cache.*} metrics.
+ * <p>
+ * The caching advice is ordered just outside the transaction advice, so {@code @CacheEvict} on a
+ * {@code @Transactional} method evicts after the commit; evicting before it would let a concurrent
+ * reader cache the old row again until it expires.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String POSTS = "posts";
+}
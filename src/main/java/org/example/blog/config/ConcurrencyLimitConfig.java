@@ -0,0 +1,55 @@
+package org.example.blog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.blog.limit.AdaptiveLimiter;
+import org.example.blog.limit.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts a {@link ConcurrencyLimitFilter} in front of the REST endpoints. Actuator and the API docs are
+ * not limited so health checks keep answering under load.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "blog.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${blog.concurrency.read.initial-limit:50}") int readInitial,
+            @Value("${blog.concurrency.read.min-limit:5}") int readMin,
+            @Value("${blog.concurrency.read.max-limit:200}") int readMax,
+            @Value("${blog.concurrency.read.latency-threshold-ms:250}") long readThresholdMs,
+            @Value("${blog.concurrency.write.initial-limit:20}") int writeInitial,
+            @Value("${blog.concurrency.write.min-limit:2}") int writeMin,
+            @Value("${blog.concurrency.write.max-limit:100}") int writeMax,
+            @Value("${blog.concurrency.write.latency-threshold-ms:500}") long writeThresholdMs,
+            @Value("${blog.concurrency.bulk.initial-limit:4}") int bulkInitial,
+            @Value("${blog.concurrency.bulk.min-limit:1}") int bulkMin,
+            @Value("${blog.concurrency.bulk.max-limit:8}") int bulkMax,
+            @Value("${blog.concurrency.bulk.latency-threshold-ms:30000}") long bulkThresholdMs,
+            @Value("${blog.concurrency.backoff-ratio:0.9}") double backoffRatio,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) throws IOException {
+        AdaptiveLimiter read = new AdaptiveLimiter("read", readInitial, readMin, readMax,
+                TimeUnit.MILLISECONDS.toNanos(readThresholdMs), backoffRatio);
+        AdaptiveLimiter write = new AdaptiveLimiter("write", writeInitial, writeMin, writeMax,
+                TimeUnit.MILLISECONDS.toNanos(writeThresholdMs), backoffRatio);
+        AdaptiveLimiter bulk = new AdaptiveLimiter("bulk", bulkInitial, bulkMin, bulkMax,
+                TimeUnit.MILLISECONDS.toNanos(bulkThresholdMs), backoffRatio);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(read, write, bulk, objectMapper, meterRegistry));
+        registration.addUrlPatterns("/posts", "/posts/*", "/comments", "/comments/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.blog.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with a {@link ReadWriteRoutingDataSource} when a replica is
+ * configured under {@code blog.datasource.replica.*} (same keys as {@code spring.datasource.*}, pool
+ * settings under {@code blog.datasource.replica.hikari.*}). Without a replica URL this configuration
+ * is skipped and every query goes to {@code spring.datasource.url}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "blog.datasource.replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    private static final String REPLICA_PREFIX = "blog.datasource.replica";
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        DataSourceProperties replicaProperties = binder.bind(REPLICA_PREFIX, DataSourceProperties.class).get();
+        replicaProperties.afterPropertiesSet();
+        HikariDataSource replica = replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(REPLICA_PREFIX + ".hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        });
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.Route.PRIMARY, primary);
+        targets.put(ReadWriteRoutingDataSource.Route.REPLICA, replica);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
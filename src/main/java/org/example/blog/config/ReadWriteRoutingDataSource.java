@@ -0,0 +1,21 @@
+package org.example.blog.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is fetched only once the transaction, and its read-only flag, has been set up.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
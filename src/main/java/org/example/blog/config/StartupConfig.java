@@ -0,0 +1,23 @@
+package org.example.blog.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps controllers and services eager when {@code spring.main.lazy-initialization} is on (the
+ * {@code fast-startup} profile), so the first request does not pay for creating them and their
+ * scheduled tasks start with the application.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerControllersAndServices() {
+        return (beanName, beanDefinition, beanType) -> AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(beanType, Service.class);
+    }
+}
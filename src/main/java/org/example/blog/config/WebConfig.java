@@ -0,0 +1,29 @@
+package org.example.blog.config;
+
+import org.example.blog.metrics.JdbcRequestMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private JdbcRequestMetricsInterceptor jdbcRequestMetricsInterceptor;
+
+    @Value("${blog.async.timeout-ms:10000}")
+    private long asyncTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(jdbcRequestMetricsInterceptor);
+    }
+}
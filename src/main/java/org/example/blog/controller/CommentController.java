@@ -1,19 +1,27 @@
 package org.example.blog.controller;
 
+import org.example.blog.async.JdbcExecutor;
 import org.example.blog.dto.CommentDto;
+import org.example.blog.dto.PageDto;
+import org.example.blog.etag.ETags;
 import org.example.blog.service.CommentService;
-import org.example.blog.exception.ResourceNotFoundException;
+import org.example.blog.service.CommentStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/posts/{postId}/comments")
@@ -22,29 +30,61 @@ public class CommentController {
     @Autowired
     private CommentService commentService;
 
-    @Operation(summary = "Get all comments for a post", description = "Retrieve a list of all comments for a specific post.")
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private CommentStreamService commentStreamService;
+
+    @Operation(summary = "Get all comments for a post", description = "Retrieve a list of all comments for a specific post. Answers 304 when If-None-Match carries the current ETag.")
     @GetMapping
-    public ResponseEntity<List<CommentDto>> getAllComments(@PathVariable Long postId) {
-        try {
+    public CompletableFuture<ResponseEntity<List<CommentDto>>> getAllComments(@PathVariable Long postId,
+                                                                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return jdbcExecutor.supply(() -> {
+            String etag = commentService.getCommentsETag(postId);
+            if (ETags.matchesWeak(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
             List<CommentDto> comments = commentService.getAllCommentsByPostId(postId);
+            return ResponseEntity.ok().eTag(etag).body(comments);
+        });
+    }
+
+    @Operation(summary = "Get a page of comments for a post", description = "Retrieve comments for a specific post a page at a time. Follow 'after' for oldest first or 'before' for newest first, starting from a post's commentsCursor or from the nextCursor of the previous page.")
+    @GetMapping("/page")
+    public CompletableFuture<ResponseEntity<PageDto<CommentDto>>> getCommentPage(
+            @PathVariable Long postId,
+            @Parameter(description = "Cursor of the last comment seen; returns older-to-newer comments after it") @RequestParam(required = false) String after,
+            @Parameter(description = "Cursor of the last comment seen; returns newer-to-older comments before it") @RequestParam(required = false) String before,
+            @Parameter(description = "Maximum number of comments to return") @RequestParam(required = false) Integer limit) {
+        return jdbcExecutor.supply(() -> {
+            PageDto<CommentDto> comments = commentService.getCommentPage(postId, after, before, limit);
             return ResponseEntity.ok(comments);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Post with id " + postId + " not found.");
-        }
+        });
+    }
+
+    @Operation(summary = "Stream comment changes for a post", description = "Server-sent events for comments created, updated or deleted on a specific post. Reconnecting with Last-Event-ID replays missed events, or sends a 'reset' event when they are no longer available and the comments should be reloaded.")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable Long postId,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return commentStreamService.subscribe(postId, lastEventId);
     }
 
     @Operation(summary = "Get a comment by ID for a post", description = "Retrieve a specific comment by its ID for a specific post.")
     @GetMapping("/{id}")
-    public ResponseEntity<CommentDto> getCommentById(@PathVariable Long postId, @PathVariable Long id) {
-        try {
+    public CompletableFuture<ResponseEntity<CommentDto>> getCommentById(@PathVariable Long postId, @PathVariable Long id,
+                                                                        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return jdbcExecutor.supply(() -> {
             CommentDto comment = commentService.getCommentById(postId, id);
-            return ResponseEntity.ok(comment);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Comment with id " + id + " not found.");
-        }
+            String etag = ETags.forVersion(comment.getVersion());
+            if (ETags.matchesWeak(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(comment);
+        });
     }
 
-    @Operation(summary = "Create a new comment for a post", description = "Create a new comment for a specific post.",
+    @Operation(summary = "Create a new comment for a post", description = "Create a new comment for a specific post. With write-behind enabled the comment is queued and 202 is returned with its id, or 503 when the queue is full.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Comment data to create.",
                     required = true,
@@ -59,12 +99,39 @@ public class CommentController {
             )
     )
     @PostMapping
-    public ResponseEntity<CommentDto> createComment(@PathVariable Long postId, @RequestBody CommentDto commentDto) {
-        CommentDto createdComment = commentService.createComment(postId, commentDto);
-        return ResponseEntity.status(201).body(createdComment);
+    public CompletableFuture<ResponseEntity<CommentDto>> createComment(@PathVariable Long postId, @RequestBody CommentDto commentDto) {
+        return jdbcExecutor.supply(() -> {
+            if (commentService.isWriteBehindEnabled()) {
+                return ResponseEntity.accepted().body(commentService.enqueueComment(postId, commentDto));
+            }
+            CommentDto createdComment = commentService.createComment(postId, commentDto);
+            return ResponseEntity.status(201).body(createdComment);
+        });
+    }
+
+    @Operation(summary = "Create many comments for a post", description = "Create a batch of comments for a specific post in a single transaction.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Comments to create.",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "CreateCommentsExample",
+                                    summary = "Example comments without IDs",
+                                    value = "[ { \"content\": \"First comment.\" }, { \"content\": \"Second comment.\" } ]"
+                            )
+                    )
+            )
+    )
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<CommentDto>>> createComments(@PathVariable Long postId, @RequestBody List<CommentDto> commentDtos) {
+        return jdbcExecutor.supply(() -> {
+            List<CommentDto> createdComments = commentService.createComments(postId, commentDtos);
+            return ResponseEntity.status(201).body(createdComments);
+        });
     }
 
-    @Operation(summary = "Update a comment for a post", description = "Update a comment for a specific post by comment ID.",
+    @Operation(summary = "Update a comment for a post", description = "Update a comment for a specific post by comment ID. Answers 412 when If-Match does not carry the current ETag.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Comment data to update.",
                     required = true,
@@ -79,38 +146,34 @@ public class CommentController {
             )
     )
     @PutMapping("/{id}")
-    public ResponseEntity<CommentDto> updateComment(@PathVariable Long postId, @PathVariable Long id, @RequestBody CommentDto commentDto) {
-        try {
-            CommentDto updatedComment = commentService.updateComment(postId, id, commentDto);
-            return ResponseEntity.ok(updatedComment);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Comment with id " + id + " not found.");
-        }
+    public CompletableFuture<ResponseEntity<CommentDto>> updateComment(@PathVariable Long postId, @PathVariable Long id,
+                                                                       @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                                       @RequestBody CommentDto commentDto) {
+        return jdbcExecutor.supply(() -> {
+            CommentDto updatedComment = commentService.updateComment(postId, id, commentDto, ifMatch);
+            return ResponseEntity.ok().eTag(ETags.forVersion(updatedComment.getVersion())).body(updatedComment);
+        });
     }
 
     @Operation(summary = "Delete a comment for a post", description = "Delete a comment for a specific post by comment ID.")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> deleteComment(@PathVariable Long postId, @PathVariable Long id) {
-        try {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> deleteComment(@PathVariable Long postId, @PathVariable Long id) {
+        return jdbcExecutor.supply(() -> {
             commentService.deleteComment(postId, id);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Comment deleted successfully.");
             return ResponseEntity.ok(response);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Comment with id " + id + " not found.");
-        }
+        });
     }
 
     @Operation(summary = "Delete all comments for a post", description = "Delete all comments for a specific post.")
     @DeleteMapping
-    public ResponseEntity<Map<String, String>> deleteAllComments(@PathVariable Long postId) {
-        try {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> deleteAllComments(@PathVariable Long postId) {
+        return jdbcExecutor.supply(() -> {
             commentService.deleteAllComments(postId);
             Map<String, String> response = new HashMap<>();
             response.put("message", "All comments deleted successfully.");
             return ResponseEntity.ok(response);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Post with id " + postId + " not found.");
-        }
+        });
     }
 }
@@ -1,16 +1,24 @@
 package org.example.blog.controller;
 
+import org.example.blog.async.JdbcExecutor;
 import org.example.blog.dto.CommentDto;
+import org.example.blog.dto.MultiGetDto;
+import org.example.blog.dto.PageDto;
 import org.example.blog.service.CommentService;
-import org.example.blog.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/comments")
@@ -19,22 +27,57 @@ public class GeneralCommentController {
     @Autowired
     private CommentService commentService;
 
-    @Operation(summary = "Get all comments", description = "Retrieve a list of all comments.")
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Operation(summary = "Get all comments", description = "Retrieve a page of comments ordered by ID. Pass the returned nextCursor as 'after' to fetch the next page.")
     @GetMapping
-    public ResponseEntity<List<CommentDto>> getAllComments() {
-        List<CommentDto> comments = commentService.getAllComments();
-        return ResponseEntity.ok(comments);
+    public CompletableFuture<ResponseEntity<PageDto<CommentDto>>> getAllComments(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of comments to return") @RequestParam(required = false) Integer limit) {
+        return jdbcExecutor.supply(() -> {
+            PageDto<CommentDto> comments = commentService.getAllComments(after, limit);
+            return ResponseEntity.ok(comments);
+        });
+    }
+
+    @Operation(summary = "Get comments by ID", description = "Retrieve many comments in one request, in the order their IDs were given. IDs that do not exist are listed under 'missing'.")
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<MultiGetDto<CommentDto>>> getCommentsByIds(
+            @Parameter(description = "Comma-separated IDs of the comments to be retrieved") @RequestParam String ids) {
+        return jdbcExecutor.supply(() -> {
+            MultiGetDto<CommentDto> comments = commentService.getCommentsByIds(ids);
+            return ResponseEntity.ok(comments);
+        });
+    }
+
+    @Operation(summary = "Export all comments", description = "Stream every comment as newline-delimited JSON, one comment per line.")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportComments(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            commentService.exportAllComments(comment -> {
+                try {
+                    writer.write(comment);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
     }
 
     @Operation(summary = "Get a comment by ID", description = "Retrieve a specific comment by its ID.")
     @GetMapping("/{id}")
-    public ResponseEntity<CommentDto> getCommentById(
+    public CompletableFuture<ResponseEntity<CommentDto>> getCommentById(
             @Parameter(description = "ID of the comment to be retrieved") @PathVariable Long id) {
-        try {
+        return jdbcExecutor.supply(() -> {
             CommentDto comment = commentService.getCommentById(id);
             return ResponseEntity.ok(comment);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Comment with id " + id + " not found.");
-        }
+        });
     }
 }
@@ -1,9 +1,18 @@
 package org.example.blog.controller;
 
+import org.example.blog.async.JdbcExecutor;
+import org.example.blog.dto.MultiGetDto;
+import org.example.blog.dto.PageDto;
 import org.example.blog.dto.PostDto;
+import org.example.blog.dto.PostSummaryDto;
+import org.example.blog.dto.SearchResultDto;
+import org.example.blog.dto.TrendingPostDto;
+import org.example.blog.etag.ETags;
 import org.example.blog.service.PostService;
-import org.example.blog.exception.ResourceNotFoundException;
+import org.example.blog.service.SearchService;
+import org.example.blog.service.TrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,9 +22,10 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 
-import java.util.List;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/posts")
@@ -24,23 +34,80 @@ public class PostController {
     @Autowired
     private PostService postService;
 
-    @Operation(summary = "Get all posts", description = "Retrieve a list of all posts.")
+    @Autowired
+    private JdbcExecutor jdbcExecutor;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Operation(summary = "Get all posts", description = "Retrieve a page of posts ordered by ID. Pass the returned nextCursor as 'after' to fetch the next page.")
     @GetMapping
-    public ResponseEntity<List<PostDto>> getAllPosts() {
-        List<PostDto> posts = postService.getAllPosts();
+    public CompletableFuture<ResponseEntity<PageDto<PostDto>>> getAllPosts(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of posts to return") @RequestParam(required = false) Integer limit) {
+        return jdbcExecutor.supply(() -> {
+            PageDto<PostDto> posts = postService.getAllPosts(after, limit);
+            return ResponseEntity.ok(posts);
+        });
+    }
+
+    @Operation(summary = "Get posts by ID", description = "Retrieve many posts in one request, in the order their IDs were given, each shaped like GET /posts/{id}. IDs that do not exist are listed under 'missing'.")
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<MultiGetDto<PostDto>>> getPostsByIds(
+            @Parameter(description = "Comma-separated IDs of the posts to be retrieved") @RequestParam String ids) {
+        return jdbcExecutor.supply(() -> {
+            MultiGetDto<PostDto> posts = postService.getPostsByIds(ids);
+            return ResponseEntity.ok(posts);
+        });
+    }
+
+    @Operation(summary = "Get post summaries", description = "Retrieve a page of posts with a content snippet and their comment count instead of the full content and comments.")
+    @GetMapping("/summaries")
+    public CompletableFuture<ResponseEntity<PageDto<PostSummaryDto>>> getPostSummaries(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of posts to return") @RequestParam(required = false) Integer limit) {
+        return jdbcExecutor.supply(() -> {
+            PageDto<PostSummaryDto> summaries = postService.getPostSummaries(after, limit);
+            return ResponseEntity.ok(summaries);
+        });
+    }
+
+    @Operation(summary = "Search posts", description = "Full-text search over post titles, post content and comments. Returns the best matching posts first.")
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchResultDto>> searchPosts(
+            @Parameter(description = "Words to search for") @RequestParam String q,
+            @Parameter(description = "Maximum number of posts to return") @RequestParam(required = false) Integer limit) {
+        List<SearchResultDto> results = searchService.search(q, limit);
+        return ResponseEntity.ok(results);
+    }
+
+    @Operation(summary = "Get trending posts", description = "Retrieve the posts with the most views and new comments over the recent window, most active first. The ranking is refreshed every few seconds.")
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPostDto>> getTrendingPosts(
+            @Parameter(description = "Maximum number of posts to return") @RequestParam(required = false) Integer limit) {
+        List<TrendingPostDto> posts = trendingService.getTrending(limit);
         return ResponseEntity.ok(posts);
     }
 
-    @Operation(summary = "Get a post by ID", description = "Retrieve a specific post by its ID.")
+    @Operation(summary = "Get a post by ID", description = "Retrieve a specific post by its ID with its first few comments, the total comment count and, when there are more, a commentsCursor to continue from on /posts/{id}/comments/page ('after' for first, 'before' for latest). Answers 304 when If-None-Match carries the current ETag.")
     @GetMapping("/{id}")
-    public ResponseEntity<PostDto> getPostById(
-            @Parameter(description = "ID of the post to be retrieved") @PathVariable Long id) {
-        try {
-            PostDto post = postService.getPostById(id);
-            return ResponseEntity.ok(post);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Post with id " + id + " not found.");
-        }
+    public CompletableFuture<ResponseEntity<PostDto>> getPostById(
+            @Parameter(description = "ID of the post to be retrieved") @PathVariable Long id,
+            @Parameter(description = "Comments to embed: none, first (oldest, the default), latest (newest first) or all") @RequestParam(required = false) String include,
+            @Parameter(description = "Maximum number of comments to embed for first and latest") @RequestParam(required = false) Integer commentLimit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return jdbcExecutor.supply(() -> {
+            String etag = postService.getPostETag(id);
+            trendingService.recordView(id);
+            if (ETags.matchesWeak(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            PostDto post = postService.getPostById(id, include, commentLimit);
+            return ResponseEntity.ok().eTag(etag).body(post);
+        });
     }
 
     @Operation(summary = "Create a new post", description = "Create a new post. Note: Comments should not be included in the request body.",
@@ -58,12 +125,14 @@ public class PostController {
             )
     )
     @PostMapping
-    public ResponseEntity<PostDto> createPost(@RequestBody PostDto postDto) {
-        PostDto createdPost = postService.createPost(postDto);
-        return ResponseEntity.status(201).body(createdPost);
+    public CompletableFuture<ResponseEntity<PostDto>> createPost(@RequestBody PostDto postDto) {
+        return jdbcExecutor.supply(() -> {
+            PostDto createdPost = postService.createPost(postDto);
+            return ResponseEntity.status(201).body(createdPost);
+        });
     }
 
-    @Operation(summary = "Update a post", description = "Update a post by ID. Note: Comments should not be included in the request body.",
+    @Operation(summary = "Update a post", description = "Update a post by ID. Note: Comments should not be included in the request body. Answers 412 when If-Match does not carry the current ETag.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Post data to update. Comments should not be included.",
                     required = true,
@@ -78,28 +147,25 @@ public class PostController {
             )
     )
     @PutMapping("/{id}")
-    public ResponseEntity<PostDto> updatePost(
+    public CompletableFuture<ResponseEntity<PostDto>> updatePost(
             @Parameter(description = "ID of the post to be updated") @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @RequestBody PostDto postDto) {
-        try {
-            PostDto updatedPost = postService.updatePost(id, postDto);
-            return ResponseEntity.ok(updatedPost);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Post with id " + id + " not found.");
-        }
+        return jdbcExecutor.supply(() -> {
+            PostDto updatedPost = postService.updatePost(id, postDto, ifMatch);
+            return ResponseEntity.ok().eTag(ETags.forVersion(updatedPost.getVersion())).body(updatedPost);
+        });
     }
 
     @Operation(summary = "Delete a post", description = "Delete a post by ID.")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> deletePost(
+    public CompletableFuture<ResponseEntity<Map<String, String>>> deletePost(
             @Parameter(description = "ID of the post to be deleted") @PathVariable Long id) {
-        try {
+        return jdbcExecutor.supply(() -> {
             postService.deletePost(id);
             Map<String, String> response = new HashMap<>();
             response.put("message", "Post deleted successfully.");
             return ResponseEntity.ok(response);
-        } catch (ResourceNotFoundException ex) {
-            throw new ResourceNotFoundException("Post with id " + id + " not found.");
-        }
+        });
     }
 }
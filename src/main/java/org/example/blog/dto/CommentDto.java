@@ -1,9 +1,13 @@
 package org.example.blog.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
 public class CommentDto {
     private Long id;
     private String content;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,26 @@
+package org.example.blog.dto;
+
+import org.example.blog.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * Which comments {@code GET /posts/{id}} embeds: none, the oldest or the newest few, or all of them.
+ */
+public enum CommentInclude {
+    NONE,
+    FIRST,
+    LATEST,
+    ALL;
+
+    public static CommentInclude from(String value) {
+        if (value == null || value.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("include must be one of none, first, latest or all");
+        }
+    }
+}
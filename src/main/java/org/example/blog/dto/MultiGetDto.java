@@ -0,0 +1,15 @@
+package org.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetDto<T> {
+    private List<T> items;
+    private List<Long> missing;
+}
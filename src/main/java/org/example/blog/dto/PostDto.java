@@ -1,5 +1,7 @@
 package org.example.blog.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.List;
 
@@ -9,4 +11,11 @@ public class PostDto {
     private String title;
     private String content;
     private List<CommentDto> comments;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long commentCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String commentsCursor;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,11 @@
+package org.example.blog.dto;
+
+import lombok.Data;
+
+@Data
+public class PostSummaryDto {
+    private Long id;
+    private String title;
+    private String snippet;
+    private long commentCount;
+}
@@ -0,0 +1,14 @@
+package org.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDto {
+    private Long id;
+    private String title;
+    private double score;
+}
@@ -0,0 +1,84 @@
+package org.example.blog.etag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds strong entity tags from version columns and evaluates {@code If-Match} / {@code If-None-Match}
+ * headers against them.
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String forVersion(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versions named by the strong tags of an {@code If-Match} header built with {@link #forVersion}, or
+     * {@code null} when the header places no condition on the version (absent or containing {@code *}).
+     * Weak and foreign tags are skipped as in {@link #matchesStrong}, so the list may be empty, in which
+     * case nothing matches.
+     */
+    public static List<Long> versionsOf(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return null;
+            }
+            if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException ex) {
+                // not one of our tags, so it cannot match
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Weak comparison, as used for {@code If-None-Match}.
+     */
+    public static boolean matchesWeak(String header, String etag) {
+        return matches(header, etag, true);
+    }
+
+    /**
+     * Strong comparison, as used for {@code If-Match}; weak tags never match.
+     */
+    public static boolean matchesStrong(String header, String etag) {
+        return matches(header, etag, false);
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        if (header == null || etag == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
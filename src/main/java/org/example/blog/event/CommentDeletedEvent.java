@@ -0,0 +1,12 @@
+package org.example.blog.event;
+
+import lombok.Value;
+
+/**
+ * Published when a single comment is deleted.
+ */
+@Value
+public class CommentDeletedEvent {
+    Long postId;
+    Long commentId;
+}
@@ -0,0 +1,14 @@
+package org.example.blog.event;
+
+import lombok.Value;
+import org.example.blog.dto.CommentDto;
+
+/**
+ * Published when a comment is created ({@code created} is {@code true}) or updated.
+ */
+@Value
+public class CommentSavedEvent {
+    Long postId;
+    CommentDto comment;
+    boolean created;
+}
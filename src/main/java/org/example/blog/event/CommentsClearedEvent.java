@@ -0,0 +1,11 @@
+package org.example.blog.event;
+
+import lombok.Value;
+
+/**
+ * Published when all comments of a post are deleted while the post itself remains.
+ */
+@Value
+public class CommentsClearedEvent {
+    Long postId;
+}
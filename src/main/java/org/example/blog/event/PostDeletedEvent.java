@@ -0,0 +1,11 @@
+package org.example.blog.event;
+
+import lombok.Value;
+
+/**
+ * Published when a post is deleted together with all of its comments.
+ */
+@Value
+public class PostDeletedEvent {
+    Long postId;
+}
@@ -0,0 +1,12 @@
+package org.example.blog.event;
+
+import lombok.Value;
+import org.example.blog.dto.PostDto;
+
+/**
+ * Published when a post is created or updated.
+ */
+@Value
+public class PostSavedEvent {
+    PostDto post;
+}
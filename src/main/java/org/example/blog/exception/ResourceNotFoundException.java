@@ -1,7 +1,45 @@
 package org.example.blog.exception;
 
+/**
+ * Thrown when a post or comment does not exist. Misses are routine (crawlers probe ids that never
+ * existed), so no stack trace is captured and the message is only built if someone asks for it.
+ */
 public class ResourceNotFoundException extends RuntimeException {
+
+    private final String resource;
+
+    private final Long id;
+
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resource = null;
+        this.id = null;
+    }
+
+    private ResourceNotFoundException(String resource, Long id) {
+        super(null, null, false, false);
+        this.resource = resource;
+        this.id = id;
+    }
+
+    public static ResourceNotFoundException post(Long id) {
+        return new ResourceNotFoundException("Post", id);
+    }
+
+    public static ResourceNotFoundException comment(Long id) {
+        return new ResourceNotFoundException("Comment", id);
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return resource != null ? resource + " with id " + id + " not found." : super.getMessage();
     }
 }
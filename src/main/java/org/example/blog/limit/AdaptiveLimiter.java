@@ -0,0 +1,76 @@
+package org.example.blog.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by AIMD (additive increase, multiplicative decrease) on observed latency.
+ * A request that finished within {@code latencyThresholdNanos} while the limit was actually being used
+ * raises the limit by one; a slower or failed request multiplies it by {@code backoffRatio}. When the
+ * database slows down the limit therefore shrinks quickly and excess requests are rejected instead of
+ * queueing up on connections, and it grows back once latency recovers.
+ */
+public class AdaptiveLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    /** Written only under the lock in {@link #release}, read without it on every {@link #tryAcquire}. */
+    private volatile double limit;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits for " + name + " must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} requests are in flight. Every successful call
+     * must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int inflightBefore = inflight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inflightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.blog.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admits a request only while its limiter has room: the comment export and batch inserts share the
+ * bulk limiter, other GET and HEAD requests the read limiter and everything else the write limiter.
+ * Rejected requests get 503 with Retry-After right away, before a
+ * Tomcat thread is tied up waiting for the database. Responses with a 5xx status count as failures
+ * when the limiter adapts.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveLimiter readLimiter;
+    private final AdaptiveLimiter writeLimiter;
+    private final AdaptiveLimiter bulkLimiter;
+    private final byte[] rejectionBody;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+    private final Counter bulkRejections;
+
+    public ConcurrencyLimitFilter(AdaptiveLimiter readLimiter, AdaptiveLimiter writeLimiter, AdaptiveLimiter bulkLimiter,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.bulkLimiter = bulkLimiter;
+
+        Map<String, String> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("error", "Service Unavailable");
+        errorResponse.put("message", "Too many concurrent requests, retry later");
+        this.rejectionBody = objectMapper.writeValueAsBytes(errorResponse);
+
+        this.readRejections = register(readLimiter, meterRegistry);
+        this.writeRejections = register(writeLimiter, meterRegistry);
+        this.bulkRejections = register(bulkLimiter, meterRegistry);
+    }
+
+    private static Counter register(AdaptiveLimiter limiter, MeterRegistry meterRegistry) {
+        Gauge.builder("blog.concurrency.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("blog.concurrency.inflight", limiter, AdaptiveLimiter::getInflight)
+                .description("Requests currently admitted")
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+        return Counter.builder("blog.concurrency.rejected")
+                .description("Requests rejected because the concurrency limit was reached")
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveLimiter limiter;
+        Counter rejections;
+        if (isBulk(request.getRequestURI())) {
+            limiter = bulkLimiter;
+            rejections = bulkRejections;
+        } else if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+            limiter = readLimiter;
+            rejections = readRejections;
+        } else {
+            limiter = writeLimiter;
+            rejections = writeRejections;
+        }
+        if (!limiter.tryAcquire()) {
+            rejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(rejectionBody.length);
+            response.getOutputStream().write(rejectionBody);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limiter, started, response));
+                released = true;
+            }
+        } catch (IOException | ServletException | RuntimeException ex) {
+            limiter.release(System.nanoTime() - started, true);
+            released = true;
+            throw ex;
+        } finally {
+            if (!released) {
+                limiter.release(System.nanoTime() - started, response.getStatus() >= 500);
+            }
+        }
+    }
+
+    /**
+     * The export and batch inserts are slow by design and the heaviest users of the database, so they
+     * get their own small limit; their latency would otherwise shrink the limit of the fast requests.
+     */
+    private static boolean isBulk(String uri) {
+        return uri.endsWith("/comments/export") || uri.endsWith("/comments/batch");
+    }
+
+    /**
+     * Comment streams stay open for many minutes and mostly idle, so they must not hold a slot.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/comments/stream");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AdaptiveLimiter limiter;
+        private final long started;
+        private final HttpServletResponse response;
+
+        private ReleaseOnCompletion(AdaptiveLimiter limiter, long started, HttpServletResponse response) {
+            this.limiter = limiter;
+            this.started = started;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - started, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
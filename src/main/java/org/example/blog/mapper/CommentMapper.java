@@ -13,6 +13,7 @@ public class CommentMapper {
         CommentDto commentDto = new CommentDto();
         commentDto.setId(comment.getId());
         commentDto.setContent(comment.getContent());
+        commentDto.setVersion(comment.getVersion());
         return commentDto;
     }
 
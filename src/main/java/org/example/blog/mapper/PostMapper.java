@@ -1,9 +1,11 @@
 package org.example.blog.mapper;
 
 import org.example.blog.dto.PostDto;
+import org.example.blog.dto.PostSummaryDto;
 import org.example.blog.model.Post;
 import org.example.blog.model.Comment;
 import org.example.blog.dto.CommentDto;
+import org.example.blog.repository.PostSummaryView;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,15 +17,41 @@ public class PostMapper {
             return null;
         }
 
+        return toDto(post, post.getComments());
+    }
+
+    /**
+     * Maps the post with {@code comments} embedded instead of its whole comment collection.
+     */
+    public static PostDto toDto(Post post, List<Comment> comments) {
+        if (post == null) {
+            return null;
+        }
+
         PostDto postDto = new PostDto();
         postDto.setId(post.getId());
         postDto.setTitle(post.getTitle());
         postDto.setContent(post.getContent());
-        postDto.setComments(toCommentDtoList(post.getComments()));
+        postDto.setComments(toCommentDtoList(comments));
+        postDto.setVersion(post.getVersion());
 
         return postDto;
     }
 
+    public static PostSummaryDto toSummaryDto(PostSummaryView summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        PostSummaryDto summaryDto = new PostSummaryDto();
+        summaryDto.setId(summary.getId());
+        summaryDto.setTitle(summary.getTitle());
+        summaryDto.setSnippet(summary.getSnippet());
+        summaryDto.setCommentCount(summary.getCommentCount());
+
+        return summaryDto;
+    }
+
     public static Post toEntity(PostDto postDto) {
         if (postDto == null) {
             return null;
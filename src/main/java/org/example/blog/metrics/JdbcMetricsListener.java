@@ -0,0 +1,45 @@
+package org.example.blog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC execution as {@code jdbc.statements} and adds it to the running request's
+ * {@link JdbcRequestStats}. A batch counts as one execution, since it is one round trip.
+ */
+@Component
+public class JdbcMetricsListener implements QueryExecutionListener {
+
+    private final Timer statements;
+
+    private final Timer batches;
+
+    public JdbcMetricsListener(MeterRegistry meterRegistry) {
+        this.statements = Timer.builder("jdbc.statements")
+                .description("JDBC statement executions")
+                .tag("batch", "false")
+                .register(meterRegistry);
+        this.batches = Timer.builder("jdbc.statements")
+                .description("JDBC statement executions")
+                .tag("batch", "true")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        (execInfo.isBatch() ? batches : statements).record(elapsed, TimeUnit.MILLISECONDS);
+        JdbcRequestStats.record(elapsed);
+    }
+}
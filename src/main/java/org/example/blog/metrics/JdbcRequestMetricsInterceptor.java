@@ -0,0 +1,68 @@
+package org.example.blog.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many JDBC statements each request issued and how long they took, tagged like
+ * {@code http.server.requests} so the two can be read side by side. Asynchronous requests keep
+ * their tally in a request attribute between the first dispatch and the one that completes them.
+ */
+@Component
+public class JdbcRequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STATS_ATTRIBUTE = JdbcRequestMetricsInterceptor.class.getName() + ".stats";
+
+    private final MeterRegistry meterRegistry;
+
+    public JdbcRequestMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            JdbcRequestStats.resume((JdbcRequestStats) request.getAttribute(STATS_ATTRIBUTE));
+        } else {
+            JdbcRequestStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STATS_ATTRIBUTE, JdbcRequestStats.end());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        JdbcRequestStats stats = JdbcRequestStats.end();
+        if (stats == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        DistributionSummary.builder("http.server.requests.jdbc.statements")
+                .description("JDBC statements executed per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.jdbc.time")
+                .description("Time spent in JDBC per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.blog.metrics;
+
+/**
+ * Per-thread tally of the JDBC statements executed while serving the current request. When the
+ * request moves to another thread the tally goes with it through {@link #current} and {@link #resume}.
+ */
+public final class JdbcRequestStats {
+
+    private static final ThreadLocal<JdbcRequestStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long elapsedMillis;
+
+    private JdbcRequestStats() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new JdbcRequestStats());
+    }
+
+    public static JdbcRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void resume(JdbcRequestStats stats) {
+        if (stats != null) {
+            CURRENT.set(stats);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static JdbcRequestStats end() {
+        JdbcRequestStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static void record(long elapsedMillis) {
+        JdbcRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.elapsedMillis += elapsedMillis;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.blog.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.example.blog.BlogApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs JDBC executions slower than {@code threshold-ms} at WARN, and a {@code sample-rate} fraction
+ * of the others at INFO, with their bind parameters and the application method that issued them.
+ * Only the few logged executions pay for formatting and the stack walk, and the log call itself
+ * happens on a background thread; when that thread falls behind, entries are dropped and counted.
+ */
+@Component
+@ConditionalOnProperty(prefix = "blog.jdbc.slow-query", name = "enabled", matchIfMissing = true)
+public class SlowQueryLog implements QueryExecutionListener, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String APP_PACKAGE = BlogApplication.class.getPackageName() + ".";
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private static final int MAX_PARAMETER_SETS = 5;
+
+    private final long thresholdMs;
+
+    private final double sampleRate;
+
+    private final Counter slow;
+
+    private final Counter dropped;
+
+    private final ThreadPoolExecutor writer;
+
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${blog.jdbc.slow-query.threshold-ms:200}") long thresholdMs,
+                        @Value("${blog.jdbc.slow-query.sample-rate:0}") double sampleRate,
+                        @Value("${blog.jdbc.slow-query.queue-capacity:1000}") int queueCapacity) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+        this.slow = Counter.builder("jdbc.statements.slow")
+                .description("JDBC executions slower than the slow query threshold")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("jdbc.statements.slow.dropped")
+                .description("Slow or sampled query log entries dropped because the log queue was full")
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-query-log-");
+        threadFactory.setDaemon(true);
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, executor) -> dropped.increment());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        boolean isSlow = elapsed >= thresholdMs;
+        if (isSlow) {
+            slow.increment();
+        } else if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        String caller = findCaller();
+        String queries = queryInfoList.stream()
+                .map(SlowQueryLog::describe)
+                .collect(Collectors.joining("; "));
+        boolean failed = !execInfo.isSuccess();
+        writer.execute(() -> {
+            if (isSlow) {
+                log.warn("Slow query took {} ms{} in {}: {}", elapsed, failed ? " and failed" : "", caller, queries);
+            } else {
+                log.info("Sampled query took {} ms{} in {}: {}", elapsed, failed ? " and failed" : "", caller, queries);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+    }
+
+    /**
+     * The innermost application frame below this listener, skipping Spring's generated proxies.
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().equals(SlowQueryLog.class.getName())
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private static String describe(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+        if (parameterSets.stream().allMatch(List::isEmpty)) {
+            return queryInfo.getQuery();
+        }
+        String parameters = parameterSets.stream()
+                .limit(MAX_PARAMETER_SETS)
+                .map(SlowQueryLog::describe)
+                .collect(Collectors.joining(", "));
+        if (parameterSets.size() > MAX_PARAMETER_SETS) {
+            parameters += ", ... " + (parameterSets.size() - MAX_PARAMETER_SETS) + " more";
+        }
+        return queryInfo.getQuery() + " " + parameters;
+    }
+
+    private static String describe(List<ParameterSetOperation> parameters) {
+        return parameters.stream()
+                .map(SlowQueryLog::describe)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String describe(ParameterSetOperation parameter) {
+        if (ParameterSetOperation.isSetNullParameterOperation(parameter)) {
+            return "null";
+        }
+        Object[] args = parameter.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        if (value instanceof CharSequence) {
+            String text = value.toString();
+            return "'" + (text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text) + "'";
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.blog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports how long after JVM start the application became ready and served its first request, as
+ * log lines and as the {@code blog.startup.ready} and {@code blog.startup.first-request} gauges.
+ * With {@code blog.startup.exit-after-ready} the application exits once ready, which is used for the
+ * class-data-sharing training run.
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean exitAfterReady;
+
+    private volatile boolean firstRequestSeen;
+
+    public StartupTimingFilter(MeterRegistry meterRegistry,
+                               @Value("${blog.startup.exit-after-ready:false}") boolean exitAfterReady) {
+        this.meterRegistry = meterRegistry;
+        this.exitAfterReady = exitAfterReady;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("blog.startup.ready", () -> uptime, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the application was ready")
+                .register(meterRegistry);
+        log.info("Application ready {} ms after JVM start", uptime);
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (!firstRequestSeen) {
+            recordFirstRequest(request);
+        }
+    }
+
+    private synchronized void recordFirstRequest(HttpServletRequest request) {
+        if (firstRequestSeen) {
+            return;
+        }
+        firstRequestSeen = true;
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("blog.startup.first-request", () -> uptime, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first request was served")
+                .register(meterRegistry);
+        log.info("First request ({} {}) served {} ms after JVM start", request.getMethod(), request.getRequestURI(), uptime);
+    }
+}
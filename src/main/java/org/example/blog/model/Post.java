@@ -10,7 +10,7 @@ import java.util.List;
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
-    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 1)
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -19,6 +19,9 @@ public class Post {
     @Column(nullable = false)
     private String content;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments;
 }
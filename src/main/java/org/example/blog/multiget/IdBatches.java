@@ -0,0 +1,74 @@
+package org.example.blog.multiget;
+
+import org.example.blog.dto.MultiGetDto;
+import org.example.blog.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Parses the {@code ids} of a multi-get and loads them in IN-lists of at most {@code chunk-size}
+ * ids, which keeps every statement well under Oracle's 1000-expression limit.
+ */
+@Component
+public class IdBatches {
+
+    @Value("${blog.multiget.max-ids:500}")
+    private int maxIds;
+
+    @Value("${blog.multiget.chunk-size:100}")
+    private int chunkSize;
+
+    /**
+     * Parses comma-separated ids, dropping duplicates but keeping the order they were asked in.
+     */
+    public List<Long> parse(String ids) {
+        Set<Long> parsed = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            String trimmed = id.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(Long.valueOf(trimmed));
+            } catch (NumberFormatException ex) {
+                throw new InvalidRequestException("Invalid id: " + trimmed);
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidRequestException("ids must not be empty");
+        }
+        if (parsed.size() > maxIds) {
+            throw new InvalidRequestException("At most " + maxIds + " ids can be requested at once");
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    public <E> List<E> load(List<Long> ids, Function<List<Long>, List<E>> loader) {
+        List<E> loaded = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            loaded.addAll(loader.apply(ids.subList(from, Math.min(from + chunkSize, ids.size()))));
+        }
+        return loaded;
+    }
+
+    public static <T> MultiGetDto<T> inRequestOrder(List<Long> ids, Map<Long, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetDto<>(items, missing);
+    }
+}
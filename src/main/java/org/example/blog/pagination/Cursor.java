@@ -0,0 +1,41 @@
+package org.example.blog.pagination;
+
+import org.example.blog.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. Clients get it back as {@code nextCursor} and pass it as {@code after};
+ * internally it only carries the id of the last row of the previous page.
+ */
+public final class Cursor {
+
+    private static final String PREFIX = "id:";
+
+    private Cursor() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new InvalidRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.blog.pagination;
+
+import org.example.blog.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PageLimits {
+
+    @Value("${blog.pagination.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${blog.pagination.max-limit:100}")
+    private int maxLimit;
+
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        if (requested < 1) {
+            throw new InvalidRequestException("limit must be positive");
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.blog.pagination;
+
+import org.example.blog.dto.PageDto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code pageSize + 1} as the limit; the extra row only
+     * signals that another page exists and is not returned.
+     */
+    public static <E, D> PageDto<D> of(List<E> rows, int pageSize, Function<E, Long> idOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<D> items = pageRows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? Cursor.encode(idOf.apply(pageRows.get(pageSize - 1))) : null;
+        return new PageDto<>(items, nextCursor);
+    }
+
+    /**
+     * Same as {@link #of}, but for pages whose ids are selected first and whose items are then
+     * loaded in one go by {@code loader}, e.g. with a fetch join.
+     */
+    public static <D> PageDto<D> ofIds(List<Long> ids, int pageSize, Function<List<Long>, List<D>> loader) {
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        List<D> items = pageIds.isEmpty() ? Collections.emptyList() : loader.apply(pageIds);
+        String nextCursor = hasMore ? Cursor.encode(pageIds.get(pageSize - 1)) : null;
+        return new PageDto<>(items, nextCursor);
+    }
+}
@@ -2,10 +2,85 @@ package org.example.blog.repository;
 
 import org.example.blog.model.Comment;
 import org.example.blog.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPost(Post post);
+
+    List<Comment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select c from Comment c where c.id = :id and c.post.id = :postId")
+    Optional<Comment> findByIdAndPostId(@Param("id") Long id, @Param("postId") Long postId);
+
+    boolean existsByIdAndPostId(Long id, Long postId);
+
+    @Transactional
+    @Modifying
+    @Query("update Comment c set c.content = :content, c.version = c.version + 1 "
+            + "where c.id = :id and c.post.id = :postId")
+    int updateContent(@Param("id") Long id, @Param("postId") Long postId, @Param("content") String content);
+
+    @Transactional
+    @Modifying
+    @Query("update Comment c set c.content = :content, c.version = c.version + 1 "
+            + "where c.id = :id and c.post.id = :postId and c.version in :versions")
+    int updateContentIfVersionIn(@Param("id") Long id, @Param("postId") Long postId,
+                                 @Param("content") String content, @Param("versions") Collection<Long> versions);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Comment c where c.id = :id and c.post.id = :postId")
+    int deleteByIdAndPostId(@Param("id") Long id, @Param("postId") Long postId);
+
+    @Query("select c from Comment c where c.post.id = :postId and c.id > :after order by c.id asc")
+    List<Comment> findByPostIdAfter(@Param("postId") Long postId, @Param("after") Long after, Pageable pageable);
+
+    @Query("select c from Comment c where c.post.id = :postId and c.id < :before order by c.id desc")
+    List<Comment> findByPostIdBefore(@Param("postId") Long postId, @Param("before") Long before, Pageable pageable);
+
+    /**
+     * The first {@code limit} comments of each post in one statement, numbered per post by a window
+     * function since JPQL has no per-group limit.
+     */
+    @Query(value = "select id, content, version, post_id from ("
+            + "select c.id, c.content, c.version, c.post_id, "
+            + "row_number() over (partition by c.post_id order by c.id) as rn "
+            + "from comments c where c.post_id in (:postIds)) "
+            + "where rn <= :limit order by post_id, id", nativeQuery = true)
+    List<Comment> findFirstByPostIdIn(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
+
+    @Query("select c.id from Comment c where c.post.id = :postId order by c.id")
+    List<Long> findIdsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Comment c where c.post.id = :postId")
+    int bulkDeleteByPostId(@Param("postId") Long postId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Comment c where c.id in :ids")
+    int bulkDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select c from Comment c order by c.id")
+    Stream<Comment> streamAll();
 }
@@ -1,8 +1,82 @@
 package org.example.blog.repository;
 
 import org.example.blog.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-}
+    /**
+     * Read-write so that, outside a read-only transaction, the check runs on the primary: it guards
+     * writes and must not miss a post the replica has not caught up with yet.
+     */
+    @Override
+    @Transactional
+    boolean existsById(Long id);
+
+    @Query("select p.id from Post p where p.id > :after order by p.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Front-page rows: the first 200 characters of the content and the comment count, counted by a
+     * correlated subquery on the post_id index since Oracle cannot group by a CLOB.
+     */
+    @Query("select p.id as id, p.title as title, substring(p.content, 1, 200) as snippet, "
+            + "(select count(c.id) from Comment c where c.post = p) as commentCount "
+            + "from Post p where p.id > :after order by p.id")
+    List<PostSummaryView> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select p.id from Post p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id as id, p.title as title from Post p where p.id in :ids")
+    List<PostTitleView> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Query("select distinct p from Post p left join fetch p.comments where p.id in :ids order by p.id")
+    List<Post> findWithCommentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p as post, (select count(c.id) from Comment c where c.post = p) as commentCount "
+            + "from Post p where p.id = :id")
+    Optional<PostWithCommentCountView> findWithCommentCountById(@Param("id") Long id);
+
+    @Query("select p as post, (select count(c.id) from Comment c where c.post = p) as commentCount "
+            + "from Post p where p.id in :ids")
+    List<PostWithCommentCountView> findWithCommentCountByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.version from Post p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Bumps the version of a post whose comments changed, so that the version alone identifies the
+     * state of the post and its comments. Returns 0 when the post does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Post p set p.version = p.version + 1 where p.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from Post p order by p.id")
+    Stream<Post> streamAll();
+
+    @Transactional
+    @Modifying
+    @Query("delete from Post p where p.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
+}
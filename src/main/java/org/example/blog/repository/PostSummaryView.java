@@ -0,0 +1,11 @@
+package org.example.blog.repository;
+
+public interface PostSummaryView {
+    Long getId();
+
+    String getTitle();
+
+    String getSnippet();
+
+    Long getCommentCount();
+}
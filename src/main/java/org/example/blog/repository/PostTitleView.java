@@ -0,0 +1,7 @@
+package org.example.blog.repository;
+
+public interface PostTitleView {
+    Long getId();
+
+    String getTitle();
+}
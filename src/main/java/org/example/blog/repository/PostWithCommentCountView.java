@@ -0,0 +1,9 @@
+package org.example.blog.repository;
+
+import org.example.blog.model.Post;
+
+public interface PostWithCommentCountView {
+    Post getPost();
+
+    Long getCommentCount();
+}
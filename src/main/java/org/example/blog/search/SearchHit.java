@@ -0,0 +1,10 @@
+package org.example.blog.search;
+
+import lombok.Value;
+
+@Value
+public class SearchHit {
+    Long postId;
+    String title;
+    double score;
+}
@@ -0,0 +1,241 @@
+package org.example.blog.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post titles, post content and comment content. Comments count
+ * towards the post they belong to, so every hit is a post. Terms in the title weigh
+ * {@value #TITLE_WEIGHT} times as much as terms in the body or in comments.
+ *
+ * <p>Hits are ranked by a TF-IDF score: for every query term, {@code (1 + ln tf) * ln(1 + N / df)}.
+ * Reads share a lock and writes take it exclusively, so lookups never see a half-applied update.
+ */
+public class SearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Comparator<Map.Entry<Long, Double>> BY_SCORE =
+            Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** term -> post id -> weighted number of occurrences in the post and its comments. */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    private final Map<Long, PostEntry> posts = new HashMap<>();
+
+    private final Map<Long, CommentEntry> comments = new HashMap<>();
+
+    public void indexPost(Long postId, String title, String content) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, title, TITLE_WEIGHT);
+        addTerms(terms, content, 1);
+
+        lock.writeLock().lock();
+        try {
+            PostEntry entry = posts.get(postId);
+            if (entry == null) {
+                entry = new PostEntry();
+                posts.put(postId, entry);
+            } else {
+                unpost(postId, entry.terms);
+            }
+            entry.title = title;
+            entry.terms = terms;
+            post(postId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePost(Long postId) {
+        lock.writeLock().lock();
+        try {
+            PostEntry entry = posts.remove(postId);
+            if (entry == null) {
+                return;
+            }
+            unpost(postId, entry.terms);
+            for (Long commentId : entry.commentIds) {
+                CommentEntry comment = comments.remove(commentId);
+                unpost(postId, comment.terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes or re-indexes a comment. Comments of posts that are not indexed are ignored.
+     */
+    public void indexComment(Long postId, Long commentId, String content) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, content, 1);
+
+        lock.writeLock().lock();
+        try {
+            PostEntry entry = posts.get(postId);
+            if (entry == null) {
+                return;
+            }
+            CommentEntry previous = comments.put(commentId, new CommentEntry(postId, terms));
+            if (previous != null) {
+                unpost(previous.postId, previous.terms);
+            }
+            entry.commentIds.add(commentId);
+            post(postId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeComment(Long commentId) {
+        lock.writeLock().lock();
+        try {
+            CommentEntry comment = comments.remove(commentId);
+            if (comment == null) {
+                return;
+            }
+            unpost(comment.postId, comment.terms);
+            PostEntry entry = posts.get(comment.postId);
+            if (entry != null) {
+                entry.commentIds.remove(commentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeComments(Long postId) {
+        lock.writeLock().lock();
+        try {
+            PostEntry entry = posts.get(postId);
+            if (entry == null) {
+                return;
+            }
+            for (Long commentId : entry.commentIds) {
+                CommentEntry comment = comments.remove(commentId);
+                unpost(postId, comment.terms);
+            }
+            entry.commentIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} posts matching any term of {@code query}, best first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+
+        lock.readLock().lock();
+        try {
+            int documentCount = posts.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<Long, Integer> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (double) documentCount / matches.size());
+                for (Map.Entry<Long, Integer> match : matches.entrySet()) {
+                    scores.merge(match.getKey(), (1 + Math.log(match.getValue())) * idf, Double::sum);
+                }
+            }
+
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, BY_SCORE);
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                top.offer(score);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Long, Double> score = top.poll();
+                hits.add(0, new SearchHit(score.getKey(), posts.get(score.getKey()).title, score.getValue()));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return posts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void post(Long postId, Map<String, Integer> terms) {
+        terms.forEach((term, count) -> postings
+                .computeIfAbsent(term, t -> new HashMap<>())
+                .merge(postId, count, Integer::sum));
+    }
+
+    private void unpost(Long postId, Map<String, Integer> terms) {
+        terms.forEach((term, count) -> {
+            Map<Long, Integer> matches = postings.get(term);
+            if (matches == null) {
+                return;
+            }
+            matches.computeIfPresent(postId, (id, current) -> current > count ? current - count : null);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+    }
+
+    private static final class PostEntry {
+        private String title;
+        private Map<String, Integer> terms;
+        private final Set<Long> commentIds = new HashSet<>();
+    }
+
+    private static final class CommentEntry {
+        private final Long postId;
+        private final Map<String, Integer> terms;
+
+        private CommentEntry(Long postId, Map<String, Integer> terms) {
+            this.postId = postId;
+            this.terms = terms;
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package org.example.blog.service;
 
+import org.example.blog.config.CacheConfig;
 import org.example.blog.dto.CommentDto;
+import org.example.blog.dto.MultiGetDto;
+import org.example.blog.dto.PageDto;
 import org.example.blog.mapper.CommentMapper;
 import org.example.blog.model.Comment;
 import org.example.blog.model.Post;
+import org.example.blog.multiget.IdBatches;
+import org.example.blog.pagination.Cursor;
+import org.example.blog.pagination.PageLimits;
+import org.example.blog.pagination.Pages;
 import org.example.blog.repository.CommentRepository;
 import org.example.blog.repository.PostRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.example.blog.etag.ETags;
+import org.example.blog.event.CommentDeletedEvent;
+import org.example.blog.event.CommentSavedEvent;
+import org.example.blog.event.CommentsClearedEvent;
+import org.example.blog.exception.InvalidRequestException;
+import org.example.blog.exception.PreconditionFailedException;
 import org.example.blog.exception.ResourceNotFoundException;
+import org.example.blog.exception.ServiceUnavailableException;
+import org.example.blog.writebehind.CommentWriteBehind;
+import org.example.blog.writebehind.PendingComment;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CommentService {
@@ -22,73 +50,256 @@ public class CommentService {
     @Autowired
     private PostRepository postRepository;
 
-    public List<CommentDto> getAllComments() {
-        return commentRepository.findAll().stream()
-                .map(CommentMapper::toDto)
-                .collect(Collectors.toList());
+    @Autowired
+    private PageLimits pageLimits;
+
+    @Autowired
+    private IdBatches idBatches;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private CommentWriteBehind commentWriteBehind;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${blog.comments.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${blog.comments.delete-chunk-size:10000}")
+    private int deleteChunkSize;
+
+    @Transactional(readOnly = true)
+    public PageDto<CommentDto> getAllComments(String after, Integer limit) {
+        int pageSize = pageLimits.resolve(limit);
+        List<Comment> comments = commentRepository.findByIdGreaterThanOrderByIdAsc(Cursor.decode(after), PageRequest.of(0, pageSize + 1));
+        return Pages.of(comments, pageSize, Comment::getId, CommentMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public MultiGetDto<CommentDto> getCommentsByIds(String ids) {
+        List<Long> requested = idBatches.parse(ids);
+        Map<Long, CommentDto> found = idBatches.load(requested, commentRepository::findAllById).stream()
+                .collect(Collectors.toMap(Comment::getId, CommentMapper::toDto));
+        return IdBatches.inRequestOrder(requested, found);
     }
 
+    /**
+     * Streams every comment to {@code sink} in id order. Each entity is detached once mapped so the
+     * persistence context stays empty and memory use does not grow with the number of comments.
+     */
+    @Transactional(readOnly = true)
+    public void exportAllComments(Consumer<CommentDto> sink) {
+        try (Stream<Comment> comments = commentRepository.streamAll()) {
+            comments.forEach(comment -> {
+                sink.accept(CommentMapper.toDto(comment));
+                entityManager.detach(comment);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public CommentDto getCommentById(Long id) {
         Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
+                .orElseThrow(() -> ResourceNotFoundException.comment(id));
         return CommentMapper.toDto(comment);
     }
 
+    @Transactional(readOnly = true)
     public CommentDto getCommentById(Long postId, Long id) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
-
-        if (!comment.getPost().getId().equals(post.getId())) {
-            throw new ResourceNotFoundException("Comment does not belong to the specified post");
-        }
-
-        return CommentMapper.toDto(comment);
+        return commentRepository.findByIdAndPostId(id, postId)
+                .map(CommentMapper::toDto)
+                .orElseThrow(() -> ResourceNotFoundException.comment(id));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @Transactional
     public CommentDto createComment(Long postId, CommentDto commentDto) {
         Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+                .orElseThrow(() -> ResourceNotFoundException.post(postId));
         Comment comment = CommentMapper.toEntity(commentDto);
         comment.setPost(post);
-        return CommentMapper.toDto(commentRepository.save(comment));
+        CommentDto createdComment = CommentMapper.toDto(commentRepository.save(comment));
+        postRepository.incrementVersion(postId);
+        eventPublisher.publishEvent(new CommentSavedEvent(postId, createdComment, true));
+        return createdComment;
     }
 
-    public CommentDto updateComment(Long postId, Long id, CommentDto commentDto) {
+    public boolean isWriteBehindEnabled() {
+        return commentWriteBehind != null;
+    }
+
+    /**
+     * Accepts a comment for write-behind: it gets its id now and is inserted with the next batch, so
+     * anything the insert would reject has to be refused here. Throws {@link ServiceUnavailableException} when the queue is full.
+     * Not transactional: allocating the id takes a connection of its own, which must not wait while
+     * this thread already holds one.
+     */
+    public CommentDto enqueueComment(Long postId, CommentDto commentDto) {
+        if (commentDto.getContent() == null || commentDto.getContent().isBlank()) {
+            throw new InvalidRequestException("Comment content must not be blank");
+        }
+        if (!postRepository.existsById(postId)) {
+            throw ResourceNotFoundException.post(postId);
+        }
+        CommentDto accepted = new CommentDto();
+        accepted.setId(commentWriteBehind.nextId());
+        accepted.setContent(commentDto.getContent());
+        accepted.setVersion(0L);
+        if (!commentWriteBehind.offer(new PendingComment(postId, accepted))) {
+            throw new ServiceUnavailableException("Too many pending comments, retry later");
+        }
+        return accepted;
+    }
+
+    /**
+     * Inserts all comments in one transaction. The persistence context is flushed and cleared every
+     * {@code jdbcBatchSize} comments so each flush becomes a single JDBC batch and memory stays bounded.
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @Transactional
+    public List<CommentDto> createComments(Long postId, List<CommentDto> commentDtos) {
+        if (commentDtos == null || commentDtos.isEmpty()) {
+            throw new InvalidRequestException("At least one comment is required");
+        }
+        if (commentDtos.size() > maxBatchSize) {
+            throw new InvalidRequestException("At most " + maxBatchSize + " comments can be created at once");
+        }
         Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
-        if(!comment.getPost().getId().equals(post.getId())) {
-            throw new ResourceNotFoundException("Comment does not belong to the specified post");
+                .orElseThrow(() -> ResourceNotFoundException.post(postId));
+        postRepository.incrementVersion(postId);
+
+        List<CommentDto> created = new ArrayList<>(commentDtos.size());
+        for (int from = 0; from < commentDtos.size(); from += jdbcBatchSize) {
+            List<Comment> chunk = commentDtos.subList(from, Math.min(from + jdbcBatchSize, commentDtos.size())).stream()
+                    .map(CommentMapper::toEntity)
+                    .peek(comment -> {
+                        comment.setId(null);
+                        comment.setPost(post);
+                    })
+                    .collect(Collectors.toList());
+            for (Comment comment : commentRepository.saveAll(chunk)) {
+                CommentDto createdComment = CommentMapper.toDto(comment);
+                created.add(createdComment);
+                eventPublisher.publishEvent(new CommentSavedEvent(postId, createdComment, true));
+            }
+            entityManager.flush();
+            entityManager.clear();
         }
-        comment.setContent(commentDto.getContent());
-        comment.setPost(post);
-        return CommentMapper.toDto(commentRepository.save(comment));
+        return created;
     }
 
+    /**
+     * Updates the comment with a single conditional UPDATE that also checks ownership and, when
+     * {@code ifMatch} is given, the version against every strong tag it lists. Only when no row matched
+     * is a second query needed to tell a missing comment (404) from a stale version (412).
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @Transactional
+    public CommentDto updateComment(Long postId, Long id, CommentDto commentDto, String ifMatch) {
+        List<Long> expectedVersions = ETags.versionsOf(ifMatch);
+        int updated;
+        if (expectedVersions == null) {
+            updated = commentRepository.updateContent(id, postId, commentDto.getContent());
+        } else if (expectedVersions.isEmpty()) {
+            updated = 0;
+        } else {
+            updated = commentRepository.updateContentIfVersionIn(id, postId, commentDto.getContent(), expectedVersions);
+        }
+        if (updated == 0) {
+            if (expectedVersions != null && commentRepository.existsByIdAndPostId(id, postId)) {
+                throw new PreconditionFailedException("Comment has been modified");
+            }
+            throw ResourceNotFoundException.comment(id);
+        }
+        postRepository.incrementVersion(postId);
+        CommentDto updatedComment = getCommentById(postId, id);
+        eventPublisher.publishEvent(new CommentSavedEvent(postId, updatedComment, false));
+        return updatedComment;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
+    @Transactional
     public void deleteComment(Long postId, Long id) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        Comment comment = commentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
-        if (!comment.getPost().getId().equals(post.getId())) {
-            throw new ResourceNotFoundException("Comment does not belong to the specified post");
+        if (commentRepository.deleteByIdAndPostId(id, postId) == 0) {
+            throw ResourceNotFoundException.comment(id);
         }
-        commentRepository.delete(comment);
+        postRepository.incrementVersion(postId);
+        eventPublisher.publishEvent(new CommentDeletedEvent(postId, id));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#postId")
     public void deleteAllComments(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        List<Comment> comments = commentRepository.findByPost(post);
-        commentRepository.deleteAll(comments);
+        trimComments(postId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (postRepository.incrementVersion(postId) == 0) {
+                throw ResourceNotFoundException.post(postId);
+            }
+            commentRepository.bulkDeleteByPostId(postId);
+        });
+        eventPublisher.publishEvent(new CommentsClearedEvent(postId));
+    }
+
+    /**
+     * Deletes the comments of a post without loading them, chunk by chunk and each chunk in its own
+     * transaction so row locks are held only briefly, until at most {@code deleteChunkSize} are left.
+     * Those are left to the caller, which deletes them in the same transaction as the rest of its
+     * change. Chunks already deleted stay deleted if that transaction fails; repeating the request
+     * picks up where it stopped.
+     */
+    void trimComments(Long postId) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = commentRepository.findIdsByPostId(postId, PageRequest.of(0, deleteChunkSize + 1));
+                if (ids.size() <= deleteChunkSize) {
+                    return 0;
+                }
+                postRepository.incrementVersion(postId);
+                return commentRepository.bulkDeleteByIdIn(ids.subList(0, deleteChunkSize));
+            });
+        } while (deleted > 0);
+    }
+
+    @Transactional(readOnly = true)
+    public String getCommentsETag(Long postId) {
+        return postRepository.findVersionById(postId)
+                .map(ETags::forVersion)
+                .orElseThrow(() -> ResourceNotFoundException.post(postId));
+    }
+
+    /**
+     * Pages through a post's comments by id: oldest first when following {@code after}, newest first
+     * when following {@code before}.
+     */
+    @Transactional(readOnly = true)
+    public PageDto<CommentDto> getCommentPage(Long postId, String after, String before, Integer limit) {
+        if (after != null && before != null) {
+            throw new InvalidRequestException("Pass either after or before, not both");
+        }
+        int pageSize = pageLimits.resolve(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Comment> comments = before != null
+                ? commentRepository.findByPostIdBefore(postId, Cursor.decode(before), page)
+                : commentRepository.findByPostIdAfter(postId, Cursor.decode(after), page);
+        if (comments.isEmpty() && !postRepository.existsById(postId)) {
+            throw ResourceNotFoundException.post(postId);
+        }
+        return Pages.of(comments, pageSize, Comment::getId, CommentMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
     public List<CommentDto> getAllCommentsByPostId(Long postId) {
         Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+                .orElseThrow(() -> ResourceNotFoundException.post(postId));
         return commentRepository.findByPost(post).stream()
                 .map(CommentMapper::toDto)
                 .collect(Collectors.toList());
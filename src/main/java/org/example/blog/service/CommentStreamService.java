@@ -0,0 +1,183 @@
+package org.example.blog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.blog.event.CommentDeletedEvent;
+import org.example.blog.event.CommentSavedEvent;
+import org.example.blog.event.CommentsClearedEvent;
+import org.example.blog.event.PostDeletedEvent;
+import org.example.blog.exception.ResourceNotFoundException;
+import org.example.blog.repository.PostRepository;
+import org.example.blog.stream.BufferedSubscriber;
+import org.example.blog.stream.CommentFeed;
+import org.example.blog.stream.FeedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes comment changes to SSE clients. Events are taken from the comment events after the writing
+ * transaction commits and queued per client in a {@link BufferedSubscriber}; a small sender pool writes
+ * them out, so writers never wait on clients and a slow client only delays itself. A client more than
+ * {@code buffer-size} events behind is disconnected and resumes with Last-Event-ID.
+ */
+@Service
+public class CommentStreamService {
+
+    static final String CREATED = "comment-created";
+    static final String UPDATED = "comment-updated";
+    static final String DELETED = "comment-deleted";
+    static final String CLEARED = "comments-cleared";
+    static final String POST_DELETED = "post-deleted";
+
+    private final CommentFeed feed;
+
+    // Holds at most one pending task per subscriber, see BufferedSubscriber.
+    private final ExecutorService sender;
+
+    private final Counter lagging;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${blog.comments.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${blog.comments.stream.buffer-size:100}")
+    private int bufferSize;
+
+    public CommentStreamService(@Value("${blog.comments.stream.replay-size:1000}") int replaySize,
+                                @Value("${blog.comments.stream.sender-threads:2}") int senderThreads,
+                                MeterRegistry meterRegistry) {
+        this.feed = new CommentFeed(replaySize);
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "comment-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("blog.comments.stream.subscribers", feed, CommentFeed::subscriberCount)
+                .description("Open comment streams")
+                .register(meterRegistry);
+        this.lagging = Counter.builder("blog.comments.stream.lagging")
+                .description("Comment streams closed because the client fell too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the stream before checking that the post exists, so a post deleted in between is
+     * either reported as missing here or closes the stream through its post-deleted event.
+     */
+    public SseEmitter subscribe(Long postId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        BufferedSubscriber subscriber = new BufferedSubscriber(new EmitterSubscriber(emitter), bufferSize, sender, lagging::increment);
+        emitter.onCompletion(() -> feed.unsubscribe(postId, subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> feed.unsubscribe(postId, subscriber));
+        feed.subscribe(postId, subscriber, parseEventId(lastEventId));
+        if (!postRepository.existsById(postId)) {
+            feed.unsubscribe(postId, subscriber);
+            subscriber.close();
+            throw ResourceNotFoundException.post(postId);
+        }
+        return emitter;
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException ex) {
+            return 0L;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentSaved(CommentSavedEvent event) {
+        String data = toJson(event.getComment());
+        feed.publish(event.getPostId(), event.isCreated() ? CREATED : UPDATED, data);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentDeleted(CommentDeletedEvent event) {
+        String data = toJson(Collections.singletonMap("id", event.getCommentId()));
+        feed.publish(event.getPostId(), DELETED, data);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentsCleared(CommentsClearedEvent event) {
+        feed.publish(event.getPostId(), CLEARED, "{}");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        feed.close(event.getPostId(), POST_DELETED);
+    }
+
+    /**
+     * Sends an SSE comment line to every open stream so proxies keep idle connections open and
+     * disconnected clients are noticed and dropped.
+     */
+    @Scheduled(fixedRateString = "${blog.comments.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        feed.heartbeat();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static final class EmitterSubscriber implements CommentFeed.Subscriber {
+
+        private final SseEmitter emitter;
+
+        private EmitterSubscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(FeedEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.getId()))
+                    .name(event.getName())
+                    .data(event.getData(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
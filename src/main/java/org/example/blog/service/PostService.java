@@ -1,14 +1,48 @@
 package org.example.blog.service;
 
+import org.example.blog.config.CacheConfig;
+import org.example.blog.dto.CommentInclude;
+import org.example.blog.dto.MultiGetDto;
+import org.example.blog.dto.PageDto;
 import org.example.blog.dto.PostDto;
+import org.example.blog.dto.PostSummaryDto;
 import org.example.blog.mapper.PostMapper;
+import org.example.blog.model.Comment;
 import org.example.blog.model.Post;
+import org.example.blog.multiget.IdBatches;
+import org.example.blog.pagination.Cursor;
+import org.example.blog.pagination.PageLimits;
+import org.example.blog.pagination.Pages;
+import org.example.blog.repository.CommentRepository;
 import org.example.blog.repository.PostRepository;
+import org.example.blog.repository.PostSummaryView;
+import org.example.blog.repository.PostWithCommentCountView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.example.blog.etag.ETags;
+import org.example.blog.event.PostDeletedEvent;
+import org.example.blog.event.PostSavedEvent;
+import org.example.blog.exception.InvalidRequestException;
+import org.example.blog.exception.PreconditionFailedException;
 import org.example.blog.exception.ResourceNotFoundException;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,38 +51,203 @@ public class PostService {
     @Autowired
     private PostRepository postRepository;
 
-    public List<PostDto> getAllPosts() {
-        return postRepository.findAll().stream()
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PageLimits pageLimits;
+
+    @Autowired
+    private IdBatches idBatches;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${blog.posts.embedded-comments.default-limit:10}")
+    private int defaultCommentLimit;
+
+    @Value("${blog.posts.embedded-comments.max-limit:100}")
+    private int maxCommentLimit;
+
+    @PostConstruct
+    void initReadOnlyTransactionTemplate() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<PostDto> getAllPosts(String after, Integer limit) {
+        int pageSize = pageLimits.resolve(limit);
+        List<Long> ids = postRepository.findIdsAfter(Cursor.decode(after), PageRequest.of(0, pageSize + 1));
+        return Pages.ofIds(ids, pageSize, pageIds -> postRepository.findWithCommentsByIdIn(pageIds).stream()
                 .map(PostMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<PostSummaryDto> getPostSummaries(String after, Integer limit) {
+        int pageSize = pageLimits.resolve(limit);
+        List<PostSummaryView> summaries = postRepository.findSummariesAfter(Cursor.decode(after), PageRequest.of(0, pageSize + 1));
+        return Pages.of(summaries, pageSize, PostSummaryView::getId, PostMapper::toSummaryDto);
+    }
+
+    /**
+     * Loads the post with a bounded slice of its comments, limited in SQL, plus the total comment
+     * count and a cursor for the rest. Only the default slice is cached so that evicting by post id
+     * still covers every cached entry; the ETag covers all comments, so it is valid for any slice.
+     * The cached slice is read from the primary: a lagging replica row cached right after an eviction
+     * would be served until it expires. The other slices are read from the replica.
+     */
+    @Cacheable(cacheNames = CacheConfig.POSTS, key = "#id", condition = "#include == null && #commentLimit == null")
+    public PostDto getPostById(Long id, String include, Integer commentLimit) {
+        boolean cached = include == null && commentLimit == null;
+        TransactionTemplate template = cached ? transactionTemplate : readOnlyTransactionTemplate;
+        return template.execute(status -> loadPost(id, include, commentLimit));
+    }
+
+    private PostDto loadPost(Long id, String include, Integer commentLimit) {
+        CommentInclude mode = CommentInclude.from(include);
+        int limit = resolveCommentLimit(commentLimit);
+        PostWithCommentCountView row = postRepository.findWithCommentCountById(id)
+                .orElseThrow(() -> ResourceNotFoundException.post(id));
+
+        List<Comment> comments;
+        switch (mode) {
+            case NONE:
+                comments = Collections.emptyList();
+                break;
+            case LATEST:
+                comments = commentRepository.findByPostIdBefore(id, Long.MAX_VALUE, PageRequest.of(0, limit));
+                break;
+            case ALL:
+                comments = commentRepository.findByPostIdAfter(id, 0L, Pageable.unpaged());
+                break;
+            default:
+                comments = commentRepository.findByPostIdAfter(id, 0L, PageRequest.of(0, limit));
+        }
+
+        return toDto(row, comments);
+    }
+
+    /**
+     * Looks the posts up in the posts cache first and loads the rest in chunks, each chunk with its
+     * comment counts and first comments in two statements. Every post has the same shape as the
+     * default {@link #getPostById}. Loaded posts are not cached: nothing orders this read against a
+     * concurrent eviction, so caching it could bring back a post that was just changed.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetDto<PostDto> getPostsByIds(String ids) {
+        List<Long> requested = idBatches.parse(ids);
+        Cache postsCache = cacheManager.getCache(CacheConfig.POSTS);
+        Map<Long, PostDto> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            Cache.ValueWrapper cached = postsCache.get(id);
+            if (cached != null) {
+                found.put(id, (PostDto) cached.get());
+            } else {
+                misses.add(id);
+            }
+        }
+
+        idBatches.load(misses, this::loadPosts).forEach(post -> found.put(post.getId(), post));
+        return IdBatches.inRequestOrder(requested, found);
+    }
+
+    private List<PostDto> loadPosts(List<Long> ids) {
+        List<PostWithCommentCountView> rows = postRepository.findWithCommentCountByIdIn(ids);
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<Comment>> commentsByPost = commentRepository.findFirstByPostIdIn(ids, defaultCommentLimit).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getPost().getId()));
+        return rows.stream()
+                .map(row -> toDto(row, commentsByPost.getOrDefault(row.getPost().getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
-    public PostDto getPostById(Long id) {
-        return postRepository.findById(id)
-                .map(PostMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+    private static PostDto toDto(PostWithCommentCountView row, List<Comment> comments) {
+        PostDto postDto = PostMapper.toDto(row.getPost(), comments);
+        postDto.setCommentCount(row.getCommentCount());
+        if (!comments.isEmpty() && row.getCommentCount() > comments.size()) {
+            postDto.setCommentsCursor(Cursor.encode(comments.get(comments.size() - 1).getId()));
+        }
+        return postDto;
     }
 
+    private int resolveCommentLimit(Integer requested) {
+        if (requested == null) {
+            return defaultCommentLimit;
+        }
+        if (requested < 1) {
+            throw new InvalidRequestException("commentLimit must be positive");
+        }
+        return Math.min(requested, maxCommentLimit);
+    }
+
+    @Transactional(readOnly = true)
+    public String getPostETag(Long id) {
+        return postRepository.findVersionById(id)
+                .map(ETags::forVersion)
+                .orElseThrow(() -> ResourceNotFoundException.post(id));
+    }
+
+    @Transactional
     public PostDto createPost(PostDto postDto) {
         Post post = PostMapper.toEntity(postDto);
         Post savedPost = postRepository.save(post);
-        return PostMapper.toDto(savedPost);
+        PostDto savedPostDto = PostMapper.toDto(savedPost);
+        eventPublisher.publishEvent(new PostSavedEvent(savedPostDto));
+        return savedPostDto;
     }
 
-    public PostDto updatePost(Long id, PostDto postDto) {
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id")
+    @Transactional
+    public PostDto updatePost(Long id, PostDto postDto, String ifMatch) {
         Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+                .orElseThrow(() -> ResourceNotFoundException.post(id));
+        if (ifMatch != null && !ETags.matchesStrong(ifMatch, ETags.forVersion(post.getVersion()))) {
+            throw new PreconditionFailedException("Post has been modified");
+        }
 
         post.setTitle(postDto.getTitle());
         post.setContent(postDto.getContent());
 
-        Post updatedPost = postRepository.save(post);
-        return PostMapper.toDto(updatedPost);
+        // flushed so that the returned version, and the ETag built from it, is the committed one
+        Post updatedPost = postRepository.saveAndFlush(post);
+        PostDto updatedPostDto = PostMapper.toDto(updatedPost);
+        eventPublisher.publishEvent(new PostSavedEvent(updatedPostDto));
+        return updatedPostDto;
     }
 
+    /**
+     * Deletes the post together with its remaining comments in one transaction, after large posts have
+     * been trimmed in chunks by {@link CommentService#trimComments}. A post with up to
+     * {@code deleteChunkSize} comments is therefore deleted atomically.
+     */
+    @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id")
     public void deletePost(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        postRepository.delete(post);
+        commentService.trimComments(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.bulkDeleteByPostId(id);
+            if (postRepository.bulkDeleteById(id) == 0) {
+                throw ResourceNotFoundException.post(id);
+            }
+        });
+        eventPublisher.publishEvent(new PostDeletedEvent(id));
     }
 }
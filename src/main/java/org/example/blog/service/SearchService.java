@@ -0,0 +1,140 @@
+package org.example.blog.service;
+
+import org.example.blog.dto.SearchResultDto;
+import org.example.blog.event.CommentDeletedEvent;
+import org.example.blog.event.CommentSavedEvent;
+import org.example.blog.event.CommentsClearedEvent;
+import org.example.blog.event.PostDeletedEvent;
+import org.example.blog.event.PostSavedEvent;
+import org.example.blog.exception.InvalidRequestException;
+import org.example.blog.model.Comment;
+import org.example.blog.model.Post;
+import org.example.blog.repository.CommentRepository;
+import org.example.blog.repository.PostRepository;
+import org.example.blog.search.SearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over posts and their comments, answered from an in-process {@link SearchIndex}.
+ * The index is built once the application is ready and then follows the post and comment events,
+ * which are applied only after the writing transaction commits. Events that arrive while the index is
+ * being built are held back and replayed afterwards, so the older rows read by the build cannot
+ * overwrite them.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private final SearchIndex index = new SearchIndex();
+
+    /** Updates held back while {@link #rebuildIndex} runs, {@code null} otherwise. Guarded by {@code this}. */
+    private List<Runnable> pendingUpdates;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${blog.search.default-limit:10}")
+    private int defaultLimit;
+
+    @Value("${blog.search.max-limit:100}")
+    private int maxLimit;
+
+    public List<SearchResultDto> search(String query, Integer limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidRequestException("q must not be empty");
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestException("limit must be positive");
+        }
+        int resultLimit = limit == null ? defaultLimit : Math.min(limit, maxLimit);
+        return index.search(query, resultLimit).stream()
+                .map(hit -> new SearchResultDto(hit.getPostId(), hit.getTitle(), hit.getScore()))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        // held back from before the first row is read, so every commit the build may miss is replayed
+        synchronized (this) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            try (Stream<Post> posts = postRepository.streamAll()) {
+                posts.forEach(post -> {
+                    index.indexPost(post.getId(), post.getTitle(), post.getContent());
+                    entityManager.detach(post);
+                });
+            }
+            try (Stream<Comment> comments = commentRepository.streamAll()) {
+                comments.forEach(comment -> {
+                    index.indexComment(comment.getPost().getId(), comment.getId(), comment.getContent());
+                    entityManager.detach(comment);
+                });
+            }
+        } finally {
+            synchronized (this) {
+                pendingUpdates.forEach(Runnable::run);
+                log.info("Indexed {} posts for search in {} ms, replayed {} updates made meanwhile",
+                        index.size(), System.currentTimeMillis() - started, pendingUpdates.size());
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    private synchronized void apply(Runnable update) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        } else {
+            update.run();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostSaved(PostSavedEvent event) {
+        apply(() -> index.indexPost(event.getPost().getId(), event.getPost().getTitle(), event.getPost().getContent()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        apply(() -> index.removePost(event.getPostId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentSaved(CommentSavedEvent event) {
+        apply(() -> index.indexComment(event.getPostId(), event.getComment().getId(), event.getComment().getContent()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentDeleted(CommentDeletedEvent event) {
+        apply(() -> index.removeComment(event.getCommentId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentsCleared(CommentsClearedEvent event) {
+        apply(() -> index.removeComments(event.getPostId()));
+    }
+}
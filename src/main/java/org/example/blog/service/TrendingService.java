@@ -0,0 +1,102 @@
+package org.example.blog.service;
+
+import org.example.blog.dto.TrendingPostDto;
+import org.example.blog.event.CommentSavedEvent;
+import org.example.blog.event.PostDeletedEvent;
+import org.example.blog.exception.InvalidRequestException;
+import org.example.blog.repository.PostRepository;
+import org.example.blog.repository.PostTitleView;
+import org.example.blog.trending.TrendingHit;
+import org.example.blog.trending.TrendingTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts ranked by recent views and new comments. Request threads only bump counters in a
+ * {@link TrendingTracker}; the ranking is recomputed on a schedule and served from memory.
+ */
+@Service
+public class TrendingService {
+
+    private final TrendingTracker tracker;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${blog.trending.view-weight:1}")
+    private long viewWeight;
+
+    @Value("${blog.trending.comment-weight:5}")
+    private long commentWeight;
+
+    @Value("${blog.trending.default-limit:10}")
+    private int defaultLimit;
+
+    @Value("${blog.trending.max-limit:50}")
+    private int maxLimit;
+
+    private volatile List<TrendingPostDto> trending = Collections.emptyList();
+
+    public TrendingService(@Value("${blog.trending.window-slots:60}") int windowSlots) {
+        this.tracker = new TrendingTracker(windowSlots);
+    }
+
+    public List<TrendingPostDto> getTrending(Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestException("limit must be positive");
+        }
+        int resultLimit = limit == null ? defaultLimit : Math.min(limit, maxLimit);
+        List<TrendingPostDto> snapshot = trending;
+        return snapshot.subList(0, Math.min(resultLimit, snapshot.size()));
+    }
+
+    public void recordView(Long postId) {
+        tracker.record(postId, viewWeight);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentSaved(CommentSavedEvent event) {
+        if (event.isCreated()) {
+            tracker.record(event.getPostId(), commentWeight);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        tracker.forget(event.getPostId());
+    }
+
+    @Scheduled(fixedRateString = "${blog.trending.slot-ms:60000}", initialDelayString = "${blog.trending.slot-ms:60000}")
+    public void advanceWindow() {
+        tracker.advance();
+    }
+
+    /**
+     * Recomputes the ranking and looks up the titles of the top posts in one query. Posts deleted
+     * since they were counted are left out.
+     */
+    @Scheduled(fixedDelayString = "${blog.trending.refresh-ms:5000}")
+    public void refresh() {
+        List<TrendingHit> hits = tracker.top(maxLimit);
+        if (hits.isEmpty()) {
+            trending = Collections.emptyList();
+            return;
+        }
+        Map<Long, String> titles = postRepository.findTitlesByIdIn(hits.stream().map(TrendingHit::getPostId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(PostTitleView::getId, PostTitleView::getTitle));
+        trending = hits.stream()
+                .filter(hit -> titles.containsKey(hit.getPostId()))
+                .map(hit -> new TrendingPostDto(hit.getPostId(), titles.get(hit.getPostId()), hit.getScore()))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+}
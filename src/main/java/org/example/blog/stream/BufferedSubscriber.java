@@ -0,0 +1,109 @@
+package org.example.blog.stream;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts a bounded buffer between the {@link CommentFeed} and a subscriber that writes to a client.
+ * The feed only queues events; a task on {@code executor} writes them, one task per subscriber at a
+ * time so each client still sees its events in order. A slow client therefore delays nobody else, and
+ * one that falls {@code capacity} events behind is closed and has to reconnect with Last-Event-ID.
+ */
+public class BufferedSubscriber implements CommentFeed.Subscriber {
+
+    private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, "heartbeat", "");
+
+    private final CommentFeed.Subscriber delegate;
+    private final int capacity;
+    private final BlockingQueue<FeedEvent> buffer;
+    private final Executor executor;
+    private final Runnable onOverflow;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    public BufferedSubscriber(CommentFeed.Subscriber delegate, int capacity, Executor executor, Runnable onOverflow) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.onOverflow = onOverflow;
+    }
+
+    @Override
+    public void send(FeedEvent event) throws IOException {
+        enqueue(event);
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        enqueue(HEARTBEAT);
+    }
+
+    /**
+     * Closes the client once the events queued so far are written.
+     */
+    @Override
+    public void close() {
+        closing = true;
+        schedule();
+    }
+
+    private void enqueue(FeedEvent event) throws IOException {
+        if (closing) {
+            throw new IOException("Subscriber is closed");
+        }
+        if (!buffer.offer(event)) {
+            buffer.clear();
+            onOverflow.run();
+            close();
+            throw new IOException("Subscriber fell " + capacity + " events behind");
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (closed || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            buffer.clear();
+            closed = true;
+        }
+    }
+
+    private void drain() {
+        try {
+            FeedEvent event;
+            while (!closed && (event = buffer.poll()) != null) {
+                try {
+                    if (event == HEARTBEAT) {
+                        delegate.heartbeat();
+                    } else {
+                        delegate.send(event);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    closing = true;
+                    buffer.clear();
+                }
+            }
+            if (closing && !closed) {
+                closed = true;
+                delegate.close();
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // an event queued after the loop saw an empty buffer found the task still scheduled
+        if (!closed && (!buffer.isEmpty() || closing)) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.blog.stream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Per-post fan-out of comment events with a bounded replay buffer.
+ *
+ * <p>Subscribers are kept per post, so an event is offered only to the clients watching that post.
+ * Event ids are increasing across all posts and start at the boot time in microseconds, so ids handed
+ * out by an earlier run are always older than anything buffered now. The last {@code replaySize}
+ * events are kept for clients resuming with Last-Event-ID; when the requested id is no longer covered
+ * by the buffer the client gets a {@value #RESET} event and should reload the comments instead.
+ */
+public class CommentFeed {
+
+    public static final String RESET = "reset";
+
+    /**
+     * Receives events for one post. Called with the feed locked, so implementations must not block.
+     * A subscriber that throws is dropped.
+     */
+    public interface Subscriber {
+        void send(FeedEvent event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final int replaySize;
+
+    private final Deque<FeedEvent> recent;
+
+    private final ConcurrentHashMap<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private long lastId;
+
+    public CommentFeed(int replaySize) {
+        this.replaySize = replaySize;
+        this.recent = new ArrayDeque<>(replaySize);
+        this.lastId = System.currentTimeMillis() * 1000;
+    }
+
+    /**
+     * Registers {@code subscriber} for {@code postId}. With a {@code lastEventId} the events after it
+     * are replayed first, or a reset event is sent if some of them are no longer buffered.
+     */
+    public void subscribe(Long postId, Subscriber subscriber, Long lastEventId) {
+        synchronized (this) {
+            try {
+                if (lastEventId != null) {
+                    replay(postId, subscriber, lastEventId);
+                }
+            } catch (IOException ex) {
+                subscriber.close();
+                return;
+            }
+            subscribers.computeIfAbsent(postId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        }
+    }
+
+    private void replay(Long postId, Subscriber subscriber, long lastEventId) throws IOException {
+        long oldestBuffered = recent.isEmpty() ? lastId + 1 : recent.peekFirst().getId();
+        if (lastEventId + 1 < oldestBuffered || lastEventId > lastId) {
+            subscriber.send(new FeedEvent(lastId, postId, RESET, "{}"));
+            return;
+        }
+        for (FeedEvent event : recent) {
+            if (event.getId() > lastEventId && event.getPostId().equals(postId)) {
+                subscriber.send(event);
+            }
+        }
+    }
+
+    public void unsubscribe(Long postId, Subscriber subscriber) {
+        subscribers.computeIfPresent(postId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Buffers the event and hands it to the subscribers of its post. Delivery happens under the feed's
+     * lock so every subscriber sees events in id order whichever thread publishes them; subscribers must
+     * therefore not block, which {@link BufferedSubscriber} takes care of.
+     */
+    public synchronized FeedEvent publish(Long postId, String name, String data) {
+        FeedEvent event = new FeedEvent(++lastId, postId, name, data);
+        recent.addLast(event);
+        if (recent.size() > replaySize) {
+            recent.removeFirst();
+        }
+        List<Subscriber> targets = subscribers.get(postId);
+        if (targets != null) {
+            for (Subscriber subscriber : targets) {
+                try {
+                    subscriber.send(event);
+                } catch (IOException | RuntimeException ex) {
+                    unsubscribe(postId, subscriber);
+                    subscriber.close();
+                }
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Publishes {@code name} to the subscribers of {@code postId} and then closes their streams.
+     */
+    public synchronized void close(Long postId, String name) {
+        publish(postId, name, "{}");
+        List<Subscriber> removed = subscribers.remove(postId);
+        if (removed != null) {
+            removed.forEach(Subscriber::close);
+        }
+    }
+
+    public void heartbeat() {
+        subscribers.forEach((postId, list) -> {
+            for (Subscriber subscriber : list) {
+                try {
+                    subscriber.heartbeat();
+                } catch (IOException | RuntimeException ex) {
+                    unsubscribe(postId, subscriber);
+                    subscriber.close();
+                }
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.blog.stream;
+
+import lombok.Value;
+
+/**
+ * One server-sent event. {@code data} is already serialized so it is encoded once however many
+ * clients receive it.
+ */
+@Value
+public class FeedEvent {
+    long id;
+    Long postId;
+    String name;
+    String data;
+}
@@ -0,0 +1,9 @@
+package org.example.blog.trending;
+
+import lombok.Value;
+
+@Value
+public class TrendingHit {
+    Long postId;
+    long score;
+}
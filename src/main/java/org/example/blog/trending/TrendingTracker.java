@@ -0,0 +1,90 @@
+package org.example.blog.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activity counts per post over a sliding window of {@code windowSlots} time slots.
+ *
+ * <p>{@link #record} only touches the current slot: a lock-free map lookup and a {@link LongAdder}
+ * increment, which stripes its cells so concurrent request threads do not contend on one counter.
+ * {@link #advance} closes the current slot and drops the oldest one; it and {@link #top} are meant to
+ * be called from a single scheduler thread.
+ */
+public class TrendingTracker {
+
+    private static final Comparator<TrendingHit> BY_SCORE =
+            Comparator.comparingLong(TrendingHit::getScore).thenComparing(TrendingHit::getPostId, Comparator.reverseOrder());
+
+    private final int windowSlots;
+
+    private volatile ConcurrentHashMap<Long, LongAdder> current = new ConcurrentHashMap<>();
+
+    /** Closed slots, newest first. */
+    private final ConcurrentLinkedDeque<ConcurrentHashMap<Long, LongAdder>> closed = new ConcurrentLinkedDeque<>();
+
+    public TrendingTracker(int windowSlots) {
+        if (windowSlots < 1) {
+            throw new IllegalArgumentException("windowSlots must be positive");
+        }
+        this.windowSlots = windowSlots;
+    }
+
+    public void record(Long postId, long weight) {
+        ConcurrentHashMap<Long, LongAdder> slot = current;
+        LongAdder counter = slot.get(postId);
+        if (counter == null) {
+            counter = slot.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        counter.add(weight);
+    }
+
+    public void advance() {
+        closed.addFirst(current);
+        current = new ConcurrentHashMap<>();
+        while (closed.size() > windowSlots - 1) {
+            closed.removeLast();
+        }
+    }
+
+    public void forget(Long postId) {
+        current.remove(postId);
+        closed.forEach(slot -> slot.remove(postId));
+    }
+
+    /**
+     * Sums every slot in the window and keeps the {@code k} highest scores in a bounded min-heap.
+     */
+    public List<TrendingHit> top(int k) {
+        Map<Long, Long> totals = new HashMap<>();
+        addTo(totals, current);
+        closed.forEach(slot -> addTo(totals, slot));
+
+        PriorityQueue<TrendingHit> heap = new PriorityQueue<>(k + 1, BY_SCORE);
+        for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+            heap.offer(new TrendingHit(entry.getKey(), entry.getValue()));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<TrendingHit> hits = new ArrayList<>(heap);
+        hits.sort(BY_SCORE.reversed());
+        return hits;
+    }
+
+    private static void addTo(Map<Long, Long> totals, Map<Long, LongAdder> slot) {
+        slot.forEach((postId, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                totals.merge(postId, count, Long::sum);
+            }
+        });
+    }
+}
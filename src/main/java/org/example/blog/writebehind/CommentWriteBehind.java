@@ -0,0 +1,243 @@
+package org.example.blog.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.blog.config.CacheConfig;
+import org.example.blog.event.CommentSavedEvent;
+import org.example.blog.model.Comment;
+import org.example.blog.repository.PostRepository;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for comment creation, enabled with {@code blog.comments.write-behind.enabled}.
+ * <p>
+ * Accepted comments get their id from the same pooled sequence generator Hibernate uses, so they never
+ * clash with comments created through JPA, and wait in a bounded queue. A single writer thread drains
+ * the queue and inserts up to {@code max-batch-size} comments per transaction, flushing early once
+ * {@code flush-interval} has passed since the first comment of the batch arrived. One commit therefore
+ * covers many comments and throughput follows batch size rather than commit latency.
+ * <p>
+ * Accepted comments are lost if the process dies before they are flushed, and comments whose post was
+ * deleted in the meantime are dropped. When a batch fails its comments are retried one by one and only
+ * the ones that still fail are dropped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "blog.comments.write-behind", name = "enabled", havingValue = "true")
+public class CommentWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentWriteBehind.class);
+
+    private static final String INSERT_SQL = "INSERT INTO comments (id, post_id, content, version) VALUES (?, ?, ?, 0)";
+
+    private final BlockingQueue<PendingComment> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final int jdbcBatchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostRepository postRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache postsCache;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Timer flushes;
+
+    /** Offers hold the read lock and {@link #stop} the write lock, so no offer lands after the final drain. */
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentWriteBehind(@Value("${blog.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${blog.comments.write-behind.max-batch-size:500}") int maxBatchSize,
+                              @Value("${blog.comments.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              PostRepository postRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              CacheManager cacheManager,
+                              EntityManagerFactory entityManagerFactory,
+                              MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postRepository = postRepository;
+        this.eventPublisher = eventPublisher;
+        this.postsCache = cacheManager.getCache(CacheConfig.POSTS);
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = sessionFactory.getMetamodel().entityPersister(Comment.class).getIdentifierGenerator();
+
+        Gauge.builder("blog.comments.write-behind.queued", queue, BlockingQueue::size)
+                .description("Comments accepted but not yet written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("blog.comments.write-behind.rejected")
+                .description("Comments refused because the queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("blog.comments.write-behind.dropped")
+                .description("Accepted comments that could not be written")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("blog.comments.write-behind.flush")
+                .description("Time to write one batch of comments")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        accepting = true;
+        running = true;
+        writer = new Thread(this::drain, "comment-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting comments and waits for the writer to flush whatever is still queued.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public Long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) idGenerator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    /**
+     * Queues a comment that already carries its id. Returns {@code false} when the queue is full or
+     * shutting down, in which case the caller should ask the client to retry later.
+     */
+    public boolean offer(PendingComment pending) {
+        acceptLock.readLock().lock();
+        try {
+            if (accepting && running && queue.offer(pending)) {
+                return true;
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void drain() {
+        List<PendingComment> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushes.record(() -> flush(batch));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. If that fails the comments are retried one per transaction,
+     * so a single bad row costs only itself rather than every comment acknowledged with it.
+     */
+    private void flush(List<PendingComment> batch) {
+        List<PendingComment> written;
+        try {
+            written = transactionTemplate.execute(status -> insert(batch));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write {} queued comments as a batch, retrying one by one", batch.size(), ex);
+            written = new ArrayList<>(batch.size());
+            for (PendingComment pending : batch) {
+                try {
+                    written.addAll(transactionTemplate.execute(status -> insert(List.of(pending))));
+                } catch (RuntimeException rowEx) {
+                    log.error("Failed to write queued comment {} of post {}", pending.getComment().getId(), pending.getPostId(), rowEx);
+                }
+            }
+        }
+        if (written.size() < batch.size()) {
+            dropped.increment(batch.size() - written.size());
+            log.warn("Dropped {} queued comments whose post no longer exists or that could not be written", batch.size() - written.size());
+        }
+        written.stream().map(PendingComment::getPostId).distinct().forEach(postsCache::evict);
+    }
+
+    private List<PendingComment> insert(List<PendingComment> comments) {
+        Set<Long> postIds = comments.stream().map(PendingComment::getPostId).collect(Collectors.toSet());
+        Set<Long> existing = new HashSet<>(postRepository.findExistingIds(postIds));
+        List<PendingComment> writable = comments.stream()
+                .filter(pending -> existing.contains(pending.getPostId()))
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_SQL, writable, jdbcBatchSize, (ps, pending) -> {
+            ps.setLong(1, pending.getComment().getId());
+            ps.setLong(2, pending.getPostId());
+            ps.setString(3, pending.getComment().getContent());
+        });
+        writable.stream().map(PendingComment::getPostId).distinct().forEach(postRepository::incrementVersion);
+        writable.forEach(pending ->
+                eventPublisher.publishEvent(new CommentSavedEvent(pending.getPostId(), pending.getComment(), true)));
+        return writable;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.blog.writebehind;
+
+import lombok.Value;
+import org.example.blog.dto.CommentDto;
+
+/**
+ * A comment that has been accepted and given its id but not yet written to the database.
+ */
+@Value
+public class PendingComment {
+    Long postId;
+    CommentDto comment;
+}
@@ -0,0 +1,66 @@
+package org.example.blog.async
+
+import io.micrometer.core.instrument.MeterRegistry
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.MvcResult
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+
+@SpringBootTest(properties = ["blog.async.enabled=true", "blog.concurrency.enabled=false"])
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncRequestSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    MeterRegistry meterRegistry
+
+    def cleanup() {
+        postRepository.deleteAll()
+    }
+
+    def "requests are served from the JDBC executor and keep their JDBC metrics"() {
+        given:
+        Post post = new Post(title: "Post", content: "Content")
+        post.comments = [new Comment(content: "Comment", post: post)]
+        Long postId = postRepository.save(post).id
+
+        when:
+        MvcResult result = perform("/posts/$postId/comments")
+
+        then:
+        result.response.status == 200
+        result.response.contentAsString.contains("Comment")
+        meterRegistry.find("http.server.requests.jdbc.statements")
+                .tag("uri", "/posts/{postId}/comments")
+                .summary().totalAmount() > 0
+    }
+
+    def "errors raised on the executor reach the exception handler"() {
+        when:
+        MvcResult result = perform("/posts/-1")
+
+        then:
+        result.response.status == 404
+        result.response.contentAsString.contains("Post with id -1 not found.")
+    }
+
+    private MvcResult perform(String url) {
+        MvcResult result = mockMvc.perform(get(url)).andReturn()
+        result.request.asyncStarted ? mockMvc.perform(asyncDispatch(result)).andReturn() : result
+    }
+}
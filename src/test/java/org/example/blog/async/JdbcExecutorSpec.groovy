@@ -0,0 +1,83 @@
+package org.example.blog.async
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.example.blog.exception.ServiceUnavailableException
+import org.example.blog.metrics.JdbcRequestStats
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class JdbcExecutorSpec extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "when disabled work runs on the calling thread"() {
+        given:
+        JdbcExecutor executor = new JdbcExecutor(meterRegistry, false, 1, 1, 1000)
+
+        expect:
+        executor.supply { Thread.currentThread() }.join() == Thread.currentThread()
+    }
+
+    def "work runs on the pool with the request's JDBC tally"() {
+        given:
+        JdbcExecutor executor = new JdbcExecutor(meterRegistry, true, 2, 10, 1000)
+        JdbcRequestStats.begin()
+        JdbcRequestStats stats = JdbcRequestStats.current()
+
+        when:
+        def result = executor.supply { [Thread.currentThread().name, JdbcRequestStats.current()] }.join()
+
+        then:
+        result[0].startsWith("jdbc-")
+        result[1].is(stats)
+
+        cleanup:
+        JdbcRequestStats.end()
+        executor.destroy()
+    }
+
+    def "a full queue is turned away with 503"() {
+        given:
+        JdbcExecutor executor = new JdbcExecutor(meterRegistry, true, 1, 1, 1000)
+        CountDownLatch release = new CountDownLatch(1)
+        executor.supply { release.await(5, TimeUnit.SECONDS) }
+        executor.supply { true }
+
+        when:
+        executor.supply { true }
+
+        then:
+        thrown(ServiceUnavailableException)
+        meterRegistry.counter("blog.async.rejected").count() == 1
+
+        cleanup:
+        release.countDown()
+        executor.destroy()
+    }
+
+    def "work that waited past the timeout is dropped"() {
+        given:
+        JdbcExecutor executor = new JdbcExecutor(meterRegistry, true, 1, 1, 50)
+        CountDownLatch release = new CountDownLatch(1)
+        executor.supply { release.await(5, TimeUnit.SECONDS) }
+        boolean ran = false
+        def queued = executor.supply { ran = true }
+
+        when:
+        Thread.sleep(100)
+        release.countDown()
+        queued.join()
+
+        then:
+        CompletionException ex = thrown()
+        ex.cause instanceof ServiceUnavailableException
+        !ran
+        meterRegistry.counter("blog.async.expired").count() == 1
+
+        cleanup:
+        executor.destroy()
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.blog.config
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.cache.Cache
+import org.springframework.cache.CacheManager
+import org.springframework.cache.caffeine.CaffeineCache
+import org.springframework.cache.caffeine.CaffeineCacheManager
+import org.springframework.context.annotation.Bean
+import org.springframework.http.MediaType
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import spock.lang.Specification
+
+import static org.example.blog.config.CacheConfig.POSTS
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostCacheSpec extends Specification {
+
+    /** Records, for every eviction, whether it ran inside a transaction. */
+    static final List<Boolean> evictionsInTransaction = Collections.synchronizedList([])
+
+    @TestConfiguration
+    static class RecordingCache {
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+                @Override
+                protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                    new CaffeineCache(name, cache, isAllowNullValues()) {
+                        @Override
+                        void evict(Object key) {
+                            evictionsInTransaction << TransactionSynchronizationManager.isActualTransactionActive()
+                            super.evict(key)
+                        }
+                    }
+                }
+            }
+            cacheManager.cacheNames = [POSTS]
+            cacheManager
+        }
+    }
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    Post post
+
+    def setup() {
+        post = new Post(title: "Cached", content: "Content")
+        post.comments = [new Comment(content: "First", post: post)]
+        post = postRepository.save(post)
+        getPost()
+        evictionsInTransaction.clear()
+    }
+
+    def cleanup() {
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "a read after a post update sees the update"() {
+        when:
+        mockMvc.perform(put("/posts/$post.id").contentType(MediaType.APPLICATION_JSON)
+                .content('{"title": "Updated", "content": "Content"}'))
+                .andExpect(status().isOk())
+
+        then:
+        getPost().title == "Updated"
+        evictionsInTransaction == [false]
+    }
+
+    def "a read after a comment is created sees the comment"() {
+        when:
+        mockMvc.perform(post("/posts/$post.id/comments").contentType(MediaType.APPLICATION_JSON)
+                .content('{"content": "Second"}'))
+                .andExpect(status().isCreated())
+
+        then:
+        getPost().comments*.content == ["First", "Second"]
+        evictionsInTransaction == [false]
+    }
+
+    def "a read after a comment is updated sees the update"() {
+        given:
+        Long commentId = post.comments[0].id
+
+        when:
+        mockMvc.perform(put("/posts/$post.id/comments/$commentId").contentType(MediaType.APPLICATION_JSON)
+                .content('{"content": "Edited"}'))
+                .andExpect(status().isOk())
+
+        then:
+        getPost().comments*.content == ["Edited"]
+        evictionsInTransaction == [false]
+    }
+
+    def "a read after a comment is deleted no longer sees it"() {
+        given:
+        Long commentId = post.comments[0].id
+
+        when:
+        mockMvc.perform(delete("/posts/$post.id/comments/$commentId")).andExpect(status().isOk())
+
+        then:
+        getPost().comments.isEmpty()
+        evictionsInTransaction == [false]
+    }
+
+    private Map getPost() {
+        def result = mockMvc.perform(get("/posts/$post.id")).andExpect(status().isOk()).andReturn()
+        objectMapper.readValue(result.response.contentAsString, Map)
+    }
+}
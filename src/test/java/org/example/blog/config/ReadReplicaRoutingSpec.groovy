@@ -0,0 +1,163 @@
+package org.example.blog.config
+
+import liquibase.integration.spring.SpringLiquibase
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.cache.CacheManager
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.http.MediaType
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.example.blog.config.CacheConfig.POSTS
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+/**
+ * The two databases are independent, so a row seeded into both stands for a replicated one and
+ * every write can be traced to the database that received it.
+ */
+@SpringBootTest(properties = [
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "blog.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "blog.datasource.replica.username=sa",
+        "blog.datasource.replica.password="
+])
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingSpec extends Specification {
+
+    static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-primary;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", ""))
+    static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-replica;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", ""))
+
+    static {
+        // Boot migrates the primary; the replica gets the same schema before the context starts.
+        new SpringLiquibase(
+                dataSource: replica.dataSource,
+                changeLog: "classpath:db/changelog/db.changelog-master.yaml",
+                resourceLoader: new DefaultResourceLoader()).afterPropertiesSet()
+    }
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    CacheManager cacheManager
+
+    def setup() {
+        cacheManager.getCache(POSTS).clear()
+    }
+
+    def cleanup() {
+        [primary, replica].each { db ->
+            db.update("delete from comments")
+            db.update("delete from post")
+        }
+    }
+
+    def "a new post is written to the primary"() {
+        when:
+        mockMvc.perform(post("/posts").contentType(MediaType.APPLICATION_JSON).content('{"title": "Routed", "content": "Body"}'))
+                .andExpect(status().isCreated())
+
+        then:
+        postCount(primary, "Routed") == 1
+        postCount(replica, "Routed") == 0
+    }
+
+    def "a comment on a replicated post is written to the primary"() {
+        given:
+        seedPost(primary, 9001L, "Replicated")
+        seedPost(replica, 9001L, "Replicated")
+
+        when:
+        mockMvc.perform(post("/posts/9001/comments").contentType(MediaType.APPLICATION_JSON).content('{"content": "Routed"}'))
+                .andExpect(status().isCreated())
+
+        then:
+        commentCount(primary, 9001L) == 1
+        commentCount(replica, 9001L) == 0
+    }
+
+    def "deleting a replicated post deletes it from the primary"() {
+        given:
+        seedPost(primary, 9001L, "Replicated")
+        seedPost(replica, 9001L, "Replicated")
+        primary.update("insert into comments (id, post_id, content, version) values (9001, 9001, 'Comment', 0)")
+        replica.update("insert into comments (id, post_id, content, version) values (9001, 9001, 'Comment', 0)")
+
+        when:
+        mockMvc.perform(delete("/posts/9001")).andExpect(status().isOk())
+
+        then:
+        postCount(primary, "Replicated") == 0
+        commentCount(primary, 9001L) == 0
+        postCount(replica, "Replicated") == 1
+    }
+
+    def "a post the replica has not caught up with can still be commented on"() {
+        given:
+        seedPost(primary, 9002L, "Not replicated yet")
+
+        when:
+        mockMvc.perform(post("/posts/9002/comments").contentType(MediaType.APPLICATION_JSON).content('{"content": "Routed"}'))
+                .andExpect(status().isCreated())
+
+        then:
+        commentCount(primary, 9002L) == 1
+    }
+
+    def "reads that are not cached are served by the replica"() {
+        given:
+        seedPost(replica, 9003L, "Only on the replica")
+
+        expect:
+        mockMvc.perform(get("/posts/9003").param("include", "none")).andExpect(status().isOk())
+    }
+
+    def "the cached slice of a post is loaded from the primary and the others from the replica"() {
+        given:
+        seedPost(primary, 9004L, "Current")
+        seedPost(replica, 9004L, "Lagging")
+
+        expect:
+        mockMvc.perform(get("/posts/9004")).andExpect(status().isOk())
+                .andExpect(jsonPath('$.title').value("Current"))
+        cacheManager.getCache(POSTS).get(9004L).get().title == "Current"
+        mockMvc.perform(get("/posts/9004").param("include", "all")).andExpect(status().isOk())
+                .andExpect(jsonPath('$.title').value("Lagging"))
+    }
+
+    def "an update answers with the ETag it committed even while the replica lags"() {
+        given:
+        seedPost(primary, 9005L, "Replicated")
+        seedPost(replica, 9005L, "Replicated")
+
+        expect:
+        mockMvc.perform(put("/posts/9005").header("If-Match", '"0"')
+                .contentType(MediaType.APPLICATION_JSON).content('{"title": "Updated", "content": "Body"}'))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", '"1"'))
+    }
+
+    private static void seedPost(JdbcTemplate db, Long id, String title) {
+        db.update("insert into post (id, title, content, version) values (?, ?, 'Content', 0)", id, title)
+    }
+
+    private static int postCount(JdbcTemplate db, String title) {
+        db.queryForObject("select count(*) from post where title = ?", Integer, title)
+    }
+
+    private static int commentCount(JdbcTemplate db, Long postId) {
+        db.queryForObject("select count(*) from comments where post_id = ?", Integer, postId)
+    }
+}
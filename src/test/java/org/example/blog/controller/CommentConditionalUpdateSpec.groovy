@@ -0,0 +1,81 @@
+package org.example.blog.controller
+
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentConditionalUpdateSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    Long postId
+    Long commentId
+
+    def setup() {
+        Post post = new Post(title: "Post", content: "Content")
+        post.comments = [new Comment(content: "Original", post: post)]
+        post = postRepository.save(post)
+        postId = post.id
+        commentId = post.comments[0].id
+    }
+
+    def cleanup() {
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "the update succeeds when If-Match lists the current version: #ifMatch"() {
+        expect:
+        update(commentId, ifMatch)
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", '"1"'))
+        commentRepository.findById(commentId).get().content == "Edited"
+
+        where:
+        ifMatch << ['"0"', '"3", "0"', '"0","4"', 'W/"0", "0"', 'xyz, "0"', '*', '"3", *']
+    }
+
+    def "the update answers 412 when no strong tag names the current version: #ifMatch"() {
+        expect:
+        update(commentId, ifMatch).andExpect(status().isPreconditionFailed())
+        commentRepository.findById(commentId).get().content == "Original"
+
+        where:
+        ifMatch << ['"3"', '"3", "4"', 'W/"0"', 'W/"3", W/"0"', 'xyz', '""']
+    }
+
+    def "a missing comment answers 404 whatever If-Match says"() {
+        expect:
+        update(999999L, '"0"').andExpect(status().isNotFound())
+        update(999999L, 'W/"0"').andExpect(status().isNotFound())
+    }
+
+    private update(Long id, String ifMatch) {
+        mockMvc.perform(put("/posts/$postId/comments/$id")
+                .header("If-Match", ifMatch)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"content": "Edited"}'))
+    }
+}
@@ -1,38 +1,59 @@
 package org.example.blog.controller
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.example.blog.async.JdbcExecutor
 import org.example.blog.dto.CommentDto
 import org.example.blog.exception.ResourceNotFoundException
 import org.example.blog.service.CommentService
+import org.example.blog.service.CommentStreamService
 import org.springframework.http.HttpStatus
 import org.springframework.http.ResponseEntity
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter
 import spock.lang.Specification
 
 class CommentControllerSpec extends Specification {
 
     CommentService commentService = Mock()
-    CommentController commentController = new CommentController(commentService: commentService)
+    CommentStreamService commentStreamService = Mock()
+    JdbcExecutor jdbcExecutor = new JdbcExecutor(new SimpleMeterRegistry(), false, 1, 1, 1000)
+    CommentController commentController = new CommentController(commentService: commentService, commentStreamService: commentStreamService, jdbcExecutor: jdbcExecutor)
 
     def "getAllComments should return list of comments for a given post ID"() {
         given:
         Long postId = 1L
         List<CommentDto> commentList = [new CommentDto(content: "Test comment")]
+        commentService.getCommentsETag(postId) >> '"3"'
         commentService.getAllCommentsByPostId(postId) >> commentList
 
         when:
-        ResponseEntity<List<CommentDto>> response = commentController.getAllComments(postId)
+        ResponseEntity<List<CommentDto>> response = commentController.getAllComments(postId, null).join()
 
         then:
         response.statusCode == HttpStatus.OK
+        response.headers.getETag() == '"3"'
         response.body == commentList
     }
 
+    def "getAllComments should return 304 without loading comments if the ETag matches"() {
+        given:
+        Long postId = 1L
+        commentService.getCommentsETag(postId) >> '"3"'
+
+        when:
+        ResponseEntity<List<CommentDto>> response = commentController.getAllComments(postId, 'W/"3"').join()
+
+        then:
+        0 * commentService.getAllCommentsByPostId(_)
+        response.statusCode == HttpStatus.NOT_MODIFIED
+    }
+
     def "getAllComments should throw ResourceNotFoundException if post not found"() {
         given:
         Long postId = 1L
-        commentService.getAllCommentsByPostId(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
+        commentService.getCommentsETag(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
 
         when:
-        commentController.getAllComments(postId)
+        commentController.getAllComments(postId, null).join()
 
         then:
         thrown(ResourceNotFoundException)
@@ -42,14 +63,15 @@ class CommentControllerSpec extends Specification {
         given:
         Long postId = 1L
         Long commentId = 1L
-        CommentDto comment = new CommentDto(content: "Test comment")
+        CommentDto comment = new CommentDto(content: "Test comment", version: 3L)
         commentService.getCommentById(postId, commentId) >> comment
 
         when:
-        ResponseEntity<CommentDto> response = commentController.getCommentById(postId, commentId)
+        ResponseEntity<CommentDto> response = commentController.getCommentById(postId, commentId, null).join()
 
         then:
         response.statusCode == HttpStatus.OK
+        response.headers.getETag() == '"3"'
         response.body == comment
     }
 
@@ -60,7 +82,27 @@ class CommentControllerSpec extends Specification {
         commentService.getCommentById(postId, commentId) >> { throw new ResourceNotFoundException("Comment with id $commentId not found.") }
 
         when:
-        commentController.getCommentById(postId, commentId)
+        commentController.getCommentById(postId, commentId, null).join()
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def "streamComments should subscribe with the Last-Event-ID"() {
+        given:
+        SseEmitter emitter = new SseEmitter()
+        commentStreamService.subscribe(1L, "42") >> emitter
+
+        expect:
+        commentController.streamComments(1L, "42").is(emitter)
+    }
+
+    def "streamComments should throw ResourceNotFoundException if post not found"() {
+        given:
+        commentStreamService.subscribe(1L, null) >> { throw new ResourceNotFoundException("Post not found") }
+
+        when:
+        commentController.streamComments(1L, null)
 
         then:
         thrown(ResourceNotFoundException)
@@ -74,26 +116,59 @@ class CommentControllerSpec extends Specification {
         commentService.createComment(postId, newComment) >> createdComment
 
         when:
-        ResponseEntity<CommentDto> response = commentController.createComment(postId, newComment)
+        ResponseEntity<CommentDto> response = commentController.createComment(postId, newComment).join()
 
         then:
         response.statusCode == HttpStatus.CREATED
         response.body == createdComment
     }
 
+    def "createComment should answer 202 with the assigned id when write-behind is enabled"() {
+        given:
+        Long postId = 1L
+        CommentDto newComment = new CommentDto(content: "New comment")
+        CommentDto acceptedComment = new CommentDto(id: 51L, content: "New comment")
+        commentService.isWriteBehindEnabled() >> true
+        commentService.enqueueComment(postId, newComment) >> acceptedComment
+
+        when:
+        ResponseEntity<CommentDto> response = commentController.createComment(postId, newComment).join()
+
+        then:
+        response.statusCode == HttpStatus.ACCEPTED
+        response.body == acceptedComment
+        0 * commentService.createComment(_, _)
+    }
+
+    def "createComments should create a batch of comments for a given post"() {
+        given:
+        Long postId = 1L
+        List<CommentDto> newComments = [new CommentDto(content: "First"), new CommentDto(content: "Second")]
+        List<CommentDto> createdComments = [new CommentDto(id: 1L, content: "First"), new CommentDto(id: 2L, content: "Second")]
+        commentService.createComments(postId, newComments) >> createdComments
+
+        when:
+        ResponseEntity<List<CommentDto>> response = commentController.createComments(postId, newComments).join()
+
+        then:
+        response.statusCode == HttpStatus.CREATED
+        response.body == createdComments
+    }
+
     def "updateComment should update an existing comment for a given post and comment ID"() {
         given:
         Long postId = 1L
         Long commentId = 1L
         CommentDto updateComment = new CommentDto(content: "Updated comment")
-        CommentDto updatedComment = new CommentDto(content: "Updated comment")
-        commentService.updateComment(postId, commentId, updateComment) >> updatedComment
+        CommentDto updatedComment = new CommentDto(content: "Updated comment", version: 1L)
+        commentService.updateComment(postId, commentId, updateComment, '"0"') >> updatedComment
 
         when:
-        ResponseEntity<CommentDto> response = commentController.updateComment(postId, commentId, updateComment)
+        ResponseEntity<CommentDto> response = commentController.updateComment(postId, commentId, '"0"', updateComment).join()
 
         then:
         response.statusCode == HttpStatus.OK
+        response.headers.getETag() == '"1"'
         response.body == updatedComment
     }
 
@@ -102,10 +177,10 @@ class CommentControllerSpec extends Specification {
         Long postId = 1L
         Long commentId = 1L
         CommentDto updateComment = new CommentDto(content: "Updated comment")
-        commentService.updateComment(postId, commentId, updateComment) >> { throw new ResourceNotFoundException("Comment with id $commentId not found.") }
+        commentService.updateComment(postId, commentId, updateComment, null) >> { throw new ResourceNotFoundException("Comment with id $commentId not found.") }
 
         when:
-        commentController.updateComment(postId, commentId, updateComment)
+        commentController.updateComment(postId, commentId, null, updateComment).join()
 
         then:
         thrown(ResourceNotFoundException)
@@ -118,7 +193,7 @@ class CommentControllerSpec extends Specification {
         commentService.deleteComment(postId, commentId) >> {}
 
         when:
-        ResponseEntity<Map<String, String>> response = commentController.deleteComment(postId, commentId)
+        ResponseEntity<Map<String, String>> response = commentController.deleteComment(postId, commentId).join()
 
         then:
         response.statusCode == HttpStatus.OK
@@ -132,7 +207,7 @@ class CommentControllerSpec extends Specification {
         commentService.deleteComment(postId, commentId) >> { throw new ResourceNotFoundException("Comment with id $commentId not found.") }
 
         when:
-        commentController.deleteComment(postId, commentId)
+        commentController.deleteComment(postId, commentId).join()
 
         then:
         thrown(ResourceNotFoundException)
@@ -144,7 +219,7 @@ class CommentControllerSpec extends Specification {
         commentService.deleteAllComments(postId) >> {}
 
         when:
-        ResponseEntity<Map<String, String>> response = commentController.deleteAllComments(postId)
+        ResponseEntity<Map<String, String>> response = commentController.deleteAllComments(postId).join()
 
         then:
         response.statusCode == HttpStatus.OK
@@ -157,7 +232,7 @@ class CommentControllerSpec extends Specification {
         commentService.deleteAllComments(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
 
         when:
-        commentController.deleteAllComments(postId)
+        commentController.deleteAllComments(postId).join()
 
         then:
         thrown(ResourceNotFoundException)
@@ -0,0 +1,80 @@
+package org.example.blog.controller
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory
+import com.fasterxml.jackson.dataformat.smile.SmileFactory
+import org.example.blog.dto.PostDto
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentNegotiationSpec extends Specification {
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile")
+    static final MediaType CBOR = MediaType.parseMediaType("application/cbor")
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    def cleanup() {
+        postRepository.deleteAll()
+    }
+
+    def "responses default to JSON"() {
+        given:
+        Long id = postRepository.save(new Post(title: "Plain", content: "Text")).id
+
+        when:
+        def response = mockMvc.perform(get("/posts/$id")).andExpect(status().isOk()).andReturn().response
+
+        then:
+        MediaType.parseMediaType(response.contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+    }
+
+    @Unroll
+    def "#mediaType is negotiated through Accept and accepted as a request body"() {
+        given:
+        ObjectMapper mapper = new ObjectMapper(factory)
+        byte[] body = mapper.writeValueAsBytes(new PostDto(title: "Binary", content: "Encoded"))
+
+        when:
+        def created = mockMvc.perform(post("/posts")
+                .contentType(mediaType)
+                .accept(mediaType)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().response
+        PostDto createdPost = mapper.readValue(created.contentAsByteArray, PostDto)
+
+        def fetched = mockMvc.perform(get("/posts/$createdPost.id").header(HttpHeaders.ACCEPT, mediaType.toString()))
+                .andExpect(status().isOk())
+                .andReturn().response
+
+        then:
+        MediaType.parseMediaType(fetched.contentType).isCompatibleWith(mediaType)
+        mapper.readValue(fetched.contentAsByteArray, PostDto).title == "Binary"
+
+        where:
+        mediaType | factory
+        SMILE     | new SmileFactory()
+        CBOR      | new CBORFactory()
+    }
+}
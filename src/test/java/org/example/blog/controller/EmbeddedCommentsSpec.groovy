@@ -0,0 +1,99 @@
+package org.example.blog.controller
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest(properties = "blog.posts.embedded-comments.default-limit=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmbeddedCommentsSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    Long postId
+
+    def setup() {
+        Post post = new Post(title: "Post", content: "Content")
+        post.comments = (1..8).collect { i -> new Comment(content: "Comment $i", post: post) }
+        postId = postRepository.save(post).id
+    }
+
+    def cleanup() {
+        postRepository.deleteAll()
+    }
+
+    def "a post embeds its first comments by default with the total and a cursor to the rest"() {
+        when:
+        def post = getJson("/posts/$postId")
+
+        then:
+        post.comments*.content == ["Comment 1", "Comment 2", "Comment 3"]
+        post.commentCount == 8
+        post.commentsCursor != null
+
+        when:
+        def rest = getJson("/posts/$postId/comments/page?after=$post.commentsCursor&limit=10")
+
+        then:
+        rest.items*.content == (4..8).collect { "Comment $it" }
+        rest.nextCursor == null
+    }
+
+    def "include=latest embeds the newest comments and pages backwards from them"() {
+        when:
+        def post = getJson("/posts/$postId?include=latest&commentLimit=2")
+
+        then:
+        post.comments*.content == ["Comment 8", "Comment 7"]
+
+        when:
+        def older = getJson("/posts/$postId/comments/page?before=$post.commentsCursor&limit=3")
+
+        then:
+        older.items*.content == ["Comment 6", "Comment 5", "Comment 4"]
+        older.nextCursor != null
+    }
+
+    def "include=none and include=all embed no comments and every comment"() {
+        expect:
+        getJson("/posts/$postId?include=none").with { comments.isEmpty() && commentCount == 8 && commentsCursor == null }
+        getJson("/posts/$postId?include=all").with { comments.size() == 8 && commentCount == 8 && commentsCursor == null }
+    }
+
+    def "invalid include and commentLimit values are rejected"() {
+        expect:
+        mockMvc.perform(get("/posts/$postId?include=some")).andExpect(status().isBadRequest())
+        mockMvc.perform(get("/posts/$postId?commentLimit=0")).andExpect(status().isBadRequest())
+        mockMvc.perform(get("/posts/$postId/comments/page?after=x&before=y")).andExpect(status().isBadRequest())
+    }
+
+    def "paging the comments of a missing post answers 404"() {
+        expect:
+        mockMvc.perform(get("/posts/${postId + 1000}/comments/page")).andExpect(status().isNotFound())
+    }
+
+    private Object getJson(String url) {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString
+        objectMapper.readValue(body, Map)
+    }
+}
@@ -1,28 +1,34 @@
 package org.example.blog.controller
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.example.blog.async.JdbcExecutor
+import com.fasterxml.jackson.databind.ObjectMapper
 import org.example.blog.dto.CommentDto
+import org.example.blog.dto.PageDto
 import org.example.blog.exception.ResourceNotFoundException
 import org.example.blog.service.CommentService
 import org.springframework.http.HttpStatus
 import org.springframework.http.ResponseEntity
+import org.springframework.mock.web.MockHttpServletResponse
 import spock.lang.Specification
 
 class GeneralCommentControllerSpec extends Specification {
 
     CommentService commentService = Mock()
-    GeneralCommentController generalCommentController = new GeneralCommentController(commentService: commentService)
+    JdbcExecutor jdbcExecutor = new JdbcExecutor(new SimpleMeterRegistry(), false, 1, 1, 1000)
+    GeneralCommentController generalCommentController = new GeneralCommentController(commentService: commentService, objectMapper: new ObjectMapper(), jdbcExecutor: jdbcExecutor)
 
-    def "getAllComments should return list of all comments"() {
+    def "getAllComments should return a page of comments"() {
         given:
-        List<CommentDto> commentList = [new CommentDto(content: "Test comment")]
-        commentService.getAllComments() >> commentList
+        PageDto<CommentDto> page = new PageDto<>([new CommentDto(content: "Test comment")], null)
+        commentService.getAllComments("aWQ6MQ", 5) >> page
 
         when:
-        ResponseEntity<List<CommentDto>> response = generalCommentController.getAllComments()
+        ResponseEntity<PageDto<CommentDto>> response = generalCommentController.getAllComments("aWQ6MQ", 5).join()
 
         then:
         response.statusCode == HttpStatus.OK
-        response.body == commentList
+        response.body == page
     }
 
     def "getCommentById should return a comment by its ID"() {
@@ -32,7 +38,7 @@ class GeneralCommentControllerSpec extends Specification {
         commentService.getCommentById(commentId) >> comment
 
         when:
-        ResponseEntity<CommentDto> response = generalCommentController.getCommentById(commentId)
+        ResponseEntity<CommentDto> response = generalCommentController.getCommentById(commentId).join()
 
         then:
         response.statusCode == HttpStatus.OK
@@ -45,9 +51,25 @@ class GeneralCommentControllerSpec extends Specification {
         commentService.getCommentById(commentId) >> { throw new ResourceNotFoundException("Comment with id $commentId not found.") }
 
         when:
-        generalCommentController.getCommentById(commentId)
+        generalCommentController.getCommentById(commentId).join()
 
         then:
         thrown(ResourceNotFoundException)
     }
+
+    def "exportComments should write one JSON object per line"() {
+        given:
+        MockHttpServletResponse response = new MockHttpServletResponse()
+        commentService.exportAllComments(_) >> { args ->
+            args[0].accept(new CommentDto(id: 1L, content: "First"))
+            args[0].accept(new CommentDto(id: 2L, content: "Second"))
+        }
+
+        when:
+        generalCommentController.exportComments(response)
+
+        then:
+        response.contentType == "application/x-ndjson"
+        response.contentAsString.readLines() == ['{"id":1,"content":"First"}', '{"id":2,"content":"Second"}']
+    }
 }
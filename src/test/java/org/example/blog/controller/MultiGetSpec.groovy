@@ -0,0 +1,112 @@
+package org.example.blog.controller
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.cache.CacheManager
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.example.blog.config.CacheConfig.POSTS
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest(properties = ["blog.multiget.chunk-size=2", "blog.posts.embedded-comments.default-limit=2"])
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MultiGetSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CacheManager cacheManager
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    List<Post> posts
+
+    def setup() {
+        cacheManager.getCache(POSTS).clear()
+        posts = (1..5).collect { i ->
+            Post post = new Post(title: "Post $i", content: "Content $i")
+            post.comments = (1..i).collect { j -> new Comment(content: "Comment $i.$j", post: post) }
+            postRepository.save(post)
+        }
+    }
+
+    def cleanup() {
+        postRepository.deleteAll()
+    }
+
+    def "posts come back in request order across chunks with missing ids reported"() {
+        given:
+        List<Long> ids = [posts[4].id, -1L, posts[0].id, posts[2].id, posts[4].id, posts[1].id]
+
+        when:
+        def result = getJson("/posts?ids=${ids.join(',')}")
+
+        then:
+        result.items*.title == ["Post 5", "Post 1", "Post 3", "Post 2"]
+        result.missing == [-1]
+        result.items[0].comments*.content == ["Comment 5.1", "Comment 5.2"]
+        result.items[0].commentCount == 5
+        result.items[0].commentsCursor != null
+        result.items[1].commentsCursor == null
+    }
+
+    def "posts have the same shape as when they are fetched one by one, whether cached or not"() {
+        given:
+        Long cachedId = posts[3].id
+        def single = getJson("/posts/$cachedId")
+
+        expect:
+        getJson("/posts?ids=$cachedId,${posts[2].id}").items == [single, getJson("/posts/${posts[2].id}")]
+    }
+
+    def "posts loaded by a multi-get are not cached"() {
+        given:
+        getJson("/posts/${posts[0].id}")
+
+        when:
+        getJson("/posts?ids=${posts[0].id},${posts[1].id}")
+
+        then:
+        cacheManager.getCache(POSTS).get(posts[0].id) != null
+        cacheManager.getCache(POSTS).get(posts[1].id) == null
+    }
+
+    def "comments come back in request order with missing ids reported"() {
+        given:
+        List<Long> ids = posts[2].comments*.id.reverse() + [-5L]
+
+        when:
+        def result = getJson("/comments?ids=${ids.join(',')}")
+
+        then:
+        result.items*.content == ["Comment 3.3", "Comment 3.2", "Comment 3.1"]
+        result.missing == [-5]
+    }
+
+    def "malformed id lists are rejected"() {
+        expect:
+        mockMvc.perform(get("/posts?ids=1,abc")).andExpect(status().isBadRequest())
+        mockMvc.perform(get("/comments?ids=,")).andExpect(status().isBadRequest())
+    }
+
+    private Object getJson(String url) {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString
+        objectMapper.readValue(body, Map)
+    }
+}
@@ -1,8 +1,16 @@
 package org.example.blog.controller
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.example.blog.async.JdbcExecutor
+import org.example.blog.dto.PageDto
 import org.example.blog.dto.PostDto
+import org.example.blog.dto.PostSummaryDto
+import org.example.blog.dto.SearchResultDto
+import org.example.blog.dto.TrendingPostDto
 import org.example.blog.exception.ResourceNotFoundException
 import org.example.blog.service.PostService
+import org.example.blog.service.SearchService
+import org.example.blog.service.TrendingService
 import org.springframework.http.HttpStatus
 import org.springframework.http.ResponseEntity
 import spock.lang.Specification
@@ -10,45 +18,117 @@ import spock.lang.Specification
 class PostControllerSpec extends Specification {
 
     PostService postService = Mock()
-    PostController postController = new PostController(postService: postService)
+    SearchService searchService = Mock()
+    TrendingService trendingService = Mock()
+    JdbcExecutor jdbcExecutor = new JdbcExecutor(new SimpleMeterRegistry(), false, 1, 1, 1000)
+    PostController postController = new PostController(postService: postService, searchService: searchService, trendingService: trendingService, jdbcExecutor: jdbcExecutor)
 
-    def "getAllPosts should return list of all posts"() {
+    def "getAllPosts should return a page of posts"() {
         given:
-        List<PostDto> postList = [new PostDto(title: "Test post", content: "Content")]
-        postService.getAllPosts() >> postList
+        PageDto<PostDto> page = new PageDto<>([new PostDto(title: "Test post", content: "Content")], "aWQ6MQ")
+        postService.getAllPosts(null, null) >> page
 
         when:
-        ResponseEntity<List<PostDto>> response = postController.getAllPosts()
+        ResponseEntity<PageDto<PostDto>> response = postController.getAllPosts(null, null).join()
 
         then:
         response.statusCode == HttpStatus.OK
-        response.body == postList
+        response.body == page
+    }
+
+    def "getAllPosts should pass cursor and limit to the service"() {
+        given:
+        PageDto<PostDto> page = new PageDto<>([], null)
+
+        when:
+        ResponseEntity<PageDto<PostDto>> response = postController.getAllPosts("aWQ6MQ", 10).join()
+
+        then:
+        1 * postService.getAllPosts("aWQ6MQ", 10) >> page
+        response.body == page
+    }
+
+    def "getPostSummaries should return a page of post summaries"() {
+        given:
+        PageDto<PostSummaryDto> page = new PageDto<>([new PostSummaryDto(id: 1L, title: "Test post", snippet: "Content", commentCount: 3)], null)
+        postService.getPostSummaries(null, 20) >> page
+
+        when:
+        ResponseEntity<PageDto<PostSummaryDto>> response = postController.getPostSummaries(null, 20).join()
+
+        then:
+        response.statusCode == HttpStatus.OK
+        response.body == page
+    }
+
+    def "searchPosts should return the matching posts"() {
+        given:
+        List<SearchResultDto> results = [new SearchResultDto(1L, "Test post", 1.5d)]
+        searchService.search("test", 5) >> results
+
+        when:
+        ResponseEntity<List<SearchResultDto>> response = postController.searchPosts("test", 5)
+
+        then:
+        response.statusCode == HttpStatus.OK
+        response.body == results
+    }
+
+    def "getTrendingPosts should return the trending posts"() {
+        given:
+        List<TrendingPostDto> trending = [new TrendingPostDto(1L, "Test post", 12L)]
+        trendingService.getTrending(5) >> trending
+
+        when:
+        ResponseEntity<List<TrendingPostDto>> response = postController.getTrendingPosts(5)
+
+        then:
+        response.statusCode == HttpStatus.OK
+        response.body == trending
     }
 
     def "getPostById should return a post by its ID"() {
         given:
         Long postId = 1L
         PostDto post = new PostDto(title: "Test post", content: "Content")
-        postService.getPostById(postId) >> post
+        postService.getPostETag(postId) >> '"0"'
+        postService.getPostById(postId, null, null) >> post
 
         when:
-        ResponseEntity<PostDto> response = postController.getPostById(postId)
+        ResponseEntity<PostDto> response = postController.getPostById(postId, null, null, null).join()
 
         then:
+        1 * trendingService.recordView(postId)
         response.statusCode == HttpStatus.OK
+        response.headers.getETag() == '"0"'
         response.body == post
     }
 
+    def "getPostById should return 304 without loading the post if the ETag matches"() {
+        given:
+        Long postId = 1L
+        postService.getPostETag(postId) >> '"0"'
+
+        when:
+        ResponseEntity<PostDto> response = postController.getPostById(postId, null, null, '"0"').join()
+
+        then:
+        0 * postService.getPostById(_, _, _)
+        response.statusCode == HttpStatus.NOT_MODIFIED
+        response.body == null
+    }
+
     def "getPostById should throw ResourceNotFoundException if post not found"() {
         given:
         Long postId = 1L
-        postService.getPostById(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
+        postService.getPostETag(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
 
         when:
-        postController.getPostById(postId)
+        postController.getPostById(postId, null, null, null).join()
 
         then:
         thrown(ResourceNotFoundException)
+        0 * trendingService.recordView(_)
     }
 
     def "createPost should create a new post"() {
@@ -58,7 +138,7 @@ class PostControllerSpec extends Specification {
         postService.createPost(newPost) >> createdPost
 
         when:
-        ResponseEntity<PostDto> response = postController.createPost(newPost)
+        ResponseEntity<PostDto> response = postController.createPost(newPost).join()
 
         then:
         response.statusCode == HttpStatus.CREATED
@@ -69,14 +149,16 @@ class PostControllerSpec extends Specification {
         given:
         Long postId = 1L
         PostDto updatePost = new PostDto(title: "Updated post", content: "Updated content")
-        PostDto updatedPost = new PostDto(title: "Updated post", content: "Updated content")
-        postService.updatePost(postId, updatePost) >> updatedPost
+        PostDto updatedPost = new PostDto(title: "Updated post", content: "Updated content", version: 1L)
+        postService.updatePost(postId, updatePost, '"0"') >> updatedPost
+        0 * postService.getPostETag(_)
 
         when:
-        ResponseEntity<PostDto> response = postController.updatePost(postId, updatePost)
+        ResponseEntity<PostDto> response = postController.updatePost(postId, '"0"', updatePost).join()
 
         then:
         response.statusCode == HttpStatus.OK
+        response.headers.getETag() == '"1"'
         response.body == updatedPost
     }
 
@@ -84,10 +166,10 @@ class PostControllerSpec extends Specification {
         given:
         Long postId = 1L
         PostDto updatePost = new PostDto(title: "Updated post", content: "Updated content")
-        postService.updatePost(postId, updatePost) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
+        postService.updatePost(postId, updatePost, null) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
 
         when:
-        postController.updatePost(postId, updatePost)
+        postController.updatePost(postId, null, updatePost).join()
 
         then:
         thrown(ResourceNotFoundException)
@@ -99,7 +181,7 @@ class PostControllerSpec extends Specification {
         postService.deletePost(postId) >> {}
 
         when:
-        ResponseEntity<Map<String, String>> response = postController.deletePost(postId)
+        ResponseEntity<Map<String, String>> response = postController.deletePost(postId).join()
 
         then:
         response.statusCode == HttpStatus.OK
@@ -112,7 +194,7 @@ class PostControllerSpec extends Specification {
         postService.deletePost(postId) >> { throw new ResourceNotFoundException("Post with id $postId not found.") }
 
         when:
-        postController.deletePost(postId)
+        postController.deletePost(postId).join()
 
         then:
         thrown(ResourceNotFoundException)
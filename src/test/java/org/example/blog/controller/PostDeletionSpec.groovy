@@ -0,0 +1,134 @@
+package org.example.blog.controller
+
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest(properties = "blog.comments.delete-chunk-size=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostDeletionSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    Long otherId
+
+    def setup() {
+        otherId = postWithComments(2)
+    }
+
+    def cleanup() {
+        jdbcTemplate.execute("drop table if exists post_reference")
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "a post is deleted with its comments (#comments comments)"() {
+        given:
+        Long postId = postWithComments(comments)
+
+        when:
+        mockMvc.perform(delete("/posts/$postId")).andExpect(status().isOk())
+
+        then:
+        !postRepository.existsById(postId)
+        commentCount(postId) == 0
+        commentCount(otherId) == 2
+
+        where:
+        comments << [0, 2, 10]
+    }
+
+    def "all comments of a post are deleted and the post is kept (#comments comments)"() {
+        given:
+        Long postId = postWithComments(comments)
+
+        when:
+        mockMvc.perform(delete("/posts/$postId/comments")).andExpect(status().isOk())
+
+        then:
+        postRepository.existsById(postId)
+        commentCount(postId) == 0
+        commentCount(otherId) == 2
+
+        where:
+        comments << [2, 10]
+    }
+
+    def "deleting a missing post answers 404"() {
+        expect:
+        mockMvc.perform(delete("/posts/999999")).andExpect(status().isNotFound())
+        mockMvc.perform(delete("/posts/999999/comments")).andExpect(status().isNotFound())
+    }
+
+    def "a small post whose delete fails keeps its comments"() {
+        given:
+        Long postId = postWithComments(2)
+        blockDeletion(postId)
+
+        when:
+        mockMvc.perform(delete("/posts/$postId")).andExpect(status().is5xxServerError())
+
+        then:
+        postRepository.existsById(postId)
+        commentCount(postId) == 2
+    }
+
+    def "a large post whose delete fails is deleted completely when the request is repeated"() {
+        given:
+        Long postId = postWithComments(10)
+        blockDeletion(postId)
+
+        when:
+        mockMvc.perform(delete("/posts/$postId")).andExpect(status().is5xxServerError())
+
+        then: "only the comments left for the final transaction survive"
+        postRepository.existsById(postId)
+        commentCount(postId) == 1
+
+        when:
+        jdbcTemplate.update("delete from post_reference")
+        mockMvc.perform(delete("/posts/$postId")).andExpect(status().isOk())
+
+        then:
+        !postRepository.existsById(postId)
+        commentCount(postId) == 0
+    }
+
+    private Long postWithComments(int count) {
+        Post post = new Post(title: "Post", content: "Content")
+        post.comments = (0..<count).collect { i -> new Comment(content: "Comment $i", post: post) }
+        postRepository.save(post).id
+    }
+
+    private int commentCount(Long postId) {
+        jdbcTemplate.queryForObject("select count(*) from comments where post_id = ?", Integer, postId)
+    }
+
+    /** A row in another table that references the post makes deleting the post fail. */
+    private void blockDeletion(Long postId) {
+        jdbcTemplate.execute("create table if not exists post_reference (post_id number(19, 0) references post(id))")
+        jdbcTemplate.update("insert into post_reference (post_id) values (?)", postId)
+    }
+}
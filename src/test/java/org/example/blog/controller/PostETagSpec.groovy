@@ -0,0 +1,91 @@
+package org.example.blog.controller
+
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.ResultActions
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostETagSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    Long postId
+    Long commentId
+
+    def setup() {
+        Post post = new Post(title: "Tagged", content: "Content")
+        post.comments = [new Comment(content: "First", post: post)]
+        post = postRepository.save(post)
+        postId = post.id
+        commentId = post.comments[0].id
+    }
+
+    def cleanup() {
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "the post and comment list ETags are the post version"() {
+        given:
+        String expected = "\"${postRepository.findById(postId).get().version}\""
+
+        expect:
+        etag("/posts/$postId") == expected
+        etag("/posts/$postId/comments") == expected
+    }
+
+    def "every comment change moves the post ETag: #change"() {
+        given:
+        String before = etag("/posts/$postId")
+
+        when:
+        write.call(this).andExpect(status().is2xxSuccessful())
+
+        then:
+        String after = etag("/posts/$postId")
+        after != before
+        etag("/posts/$postId/comments") == after
+        mockMvc.perform(get("/posts/$postId").header("If-None-Match", before)).andExpect(status().isOk())
+        mockMvc.perform(get("/posts/$postId").header("If-None-Match", after)).andExpect(status().isNotModified())
+
+        where:
+        change           | write
+        "create"         | { PostETagSpec spec -> spec.json(post("/posts/$spec.postId/comments"), '{"content": "Second"}') }
+        "batch create"   | { PostETagSpec spec -> spec.json(post("/posts/$spec.postId/comments/batch"), '[{"content": "Second"}]') }
+        "update"         | { PostETagSpec spec -> spec.json(put("/posts/$spec.postId/comments/$spec.commentId"), '{"content": "Edited"}') }
+        "delete"         | { PostETagSpec spec -> spec.mockMvc.perform(delete("/posts/$spec.postId/comments/$spec.commentId")) }
+        "delete all"     | { PostETagSpec spec -> spec.mockMvc.perform(delete("/posts/$spec.postId/comments")) }
+    }
+
+    private String etag(String url) {
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().response.getHeader("ETag")
+    }
+
+    ResultActions json(request, String body) {
+        mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(body))
+    }
+}
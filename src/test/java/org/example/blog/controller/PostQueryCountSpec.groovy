@@ -0,0 +1,81 @@
+package org.example.blog.controller
+
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import javax.persistence.EntityManagerFactory
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostQueryCountSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory
+
+    Statistics statistics
+
+    def setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+    }
+
+    def cleanup() {
+        postRepository.deleteAll()
+    }
+
+    def "listing posts issues the same number of statements regardless of how many posts there are"() {
+        given:
+        seedPosts(2, 3)
+        long fewPosts = statementsFor("/posts?limit=100")
+        seedPosts(20, 3)
+
+        when:
+        long manyPosts = statementsFor("/posts?limit=100")
+
+        then:
+        fewPosts == manyPosts
+        manyPosts <= 2
+    }
+
+    def "getting a post issues the same number of statements regardless of how many comments it has"() {
+        given:
+        Long fewComments = seedPosts(1, 1).first().id
+        Long manyComments = seedPosts(1, 25).first().id
+
+        expect:
+        statementsFor("/posts/$fewComments") == statementsFor("/posts/$manyComments")
+        statementsFor("/posts/$manyComments") <= 2
+    }
+
+    private long statementsFor(String url) {
+        statistics.clear()
+        mockMvc.perform(get(url)).andExpect(status().isOk())
+        statistics.prepareStatementCount
+    }
+
+    private List<Post> seedPosts(int posts, int commentsPerPost) {
+        (1..posts).collect { i ->
+            Post post = new Post(title: "Post $i", content: "Content $i")
+            post.comments = (1..commentsPerPost).collect { j -> new Comment(content: "Comment $j", post: post) }
+            postRepository.save(post)
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.blog.exception
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+
+class ErrorBodiesSpec extends Specification {
+
+    ObjectMapper objectMapper = new ObjectMapper()
+
+    def "not-found bodies are the same JSON the error map used to produce"() {
+        expect:
+        objectMapper.readValue(ErrorBodies.notFound(exception), Map) == [error: "Not Found", message: message]
+
+        where:
+        exception                                                  | message
+        ResourceNotFoundException.post(42L)                        | "Post with id 42 not found."
+        ResourceNotFoundException.comment(-7L)                     | "Comment with id -7 not found."
+        new ResourceNotFoundException('No "such" thing\\here')     | 'No "such" thing\\here'
+    }
+
+    def "not-found exceptions carry no stack trace"() {
+        expect:
+        ResourceNotFoundException.post(1L).stackTrace.length == 0
+        new ResourceNotFoundException("Post not found").stackTrace.length == 0
+    }
+}
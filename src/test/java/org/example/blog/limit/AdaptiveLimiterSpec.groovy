@@ -0,0 +1,66 @@
+package org.example.blog.limit
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class AdaptiveLimiterSpec extends Specification {
+
+    static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100)
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(10)
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500)
+
+    AdaptiveLimiter limiter = new AdaptiveLimiter("read", 4, 2, 6, THRESHOLD, 0.5)
+
+    def "tryAcquire should admit requests up to the limit"() {
+        expect:
+        (1..4).every { limiter.tryAcquire() }
+        !limiter.tryAcquire()
+        limiter.inflight == 4
+    }
+
+    def "fast requests at high utilisation should raise the limit up to the maximum"() {
+        when:
+        5.times {
+            (1..limiter.limit).each { limiter.tryAcquire() }
+            limiter.release(FAST, false)
+            (limiter.inflight).times { limiter.release(FAST, false) }
+        }
+
+        then:
+        limiter.limit == 6
+    }
+
+    def "fast requests at low utilisation should leave the limit alone"() {
+        when:
+        limiter.tryAcquire()
+        limiter.release(FAST, false)
+
+        then:
+        limiter.limit == 4
+    }
+
+    def "slow or failed requests should cut the limit down to the minimum"() {
+        when:
+        limiter.tryAcquire()
+        limiter.release(SLOW, false)
+
+        then:
+        limiter.limit == 2
+
+        when:
+        limiter.tryAcquire()
+        limiter.release(FAST, true)
+
+        then:
+        limiter.limit == 2
+    }
+
+    def "limits outside the allowed range should be rejected"() {
+        when:
+        new AdaptiveLimiter("write", 1, 2, 6, THRESHOLD, 0.9)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
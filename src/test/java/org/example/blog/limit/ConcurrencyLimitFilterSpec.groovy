@@ -0,0 +1,123 @@
+package org.example.blog.limit
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.mock.web.MockFilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+
+import javax.servlet.FilterChain
+
+class ConcurrencyLimitFilterSpec extends Specification {
+
+    AdaptiveLimiter readLimiter = new AdaptiveLimiter("read", 1, 1, 10, 1_000_000_000L, 0.9)
+    AdaptiveLimiter writeLimiter = new AdaptiveLimiter("write", 1, 1, 10, 1_000_000_000L, 0.9)
+    AdaptiveLimiter bulkLimiter = new AdaptiveLimiter("bulk", 1, 1, 10, 1_000_000_000L, 0.9)
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, bulkLimiter, new ObjectMapper(), meterRegistry)
+
+    def "requests under the limit should pass through and release their slot"() {
+        given:
+        FilterChain chain = Mock()
+        MockHttpServletResponse response = new MockHttpServletResponse()
+
+        when:
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts"), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _)
+        response.status == 200
+        readLimiter.inflight == 0
+    }
+
+    def "requests over the limit should be rejected with 503 and Retry-After"() {
+        given:
+        readLimiter.tryAcquire()
+        MockHttpServletResponse response = new MockHttpServletResponse()
+
+        when:
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts/1"), response, new MockFilterChain())
+
+        then:
+        response.status == 503
+        response.getHeader("Retry-After") == "1"
+        response.contentAsString.contains("Service Unavailable")
+        meterRegistry.get("blog.concurrency.rejected").tag("class", "read").counter().count() == 1
+    }
+
+    def "reads and writes should be limited separately"() {
+        given:
+        readLimiter.tryAcquire()
+        MockHttpServletResponse response = new MockHttpServletResponse()
+
+        when:
+        filter.doFilter(new MockHttpServletRequest("POST", "/posts"), response, new MockFilterChain())
+
+        then:
+        response.status == 200
+        writeLimiter.inflight == 0
+    }
+
+    def "exceptions should release the slot and count as failures"() {
+        given:
+        FilterChain chain = Mock()
+        chain.doFilter(_, _) >> { throw new IllegalStateException("boom") }
+
+        when:
+        filter.doFilter(new MockHttpServletRequest("PUT", "/posts/1"), new MockHttpServletResponse(), chain)
+
+        then:
+        thrown(IllegalStateException)
+        writeLimiter.inflight == 0
+    }
+
+    def "the export and batch inserts should be limited by the bulk limiter: #method #uri"() {
+        given:
+        readLimiter.tryAcquire()
+        writeLimiter.tryAcquire()
+        FilterChain chain = Mock()
+        MockHttpServletResponse response = new MockHttpServletResponse()
+
+        when:
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _)
+        response.status == 200
+        bulkLimiter.inflight == 0
+
+        when: "the passed request raised the limit, so every slot is taken"
+        while (bulkLimiter.tryAcquire()) {
+        }
+        response = new MockHttpServletResponse()
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain)
+
+        then:
+        0 * chain.doFilter(_, _)
+        response.status == 503
+        meterRegistry.get("blog.concurrency.rejected").tag("class", "bulk").counter().count() == 1
+
+        where:
+        method | uri
+        "GET"  | "/comments/export"
+        "POST" | "/posts/1/comments/batch"
+    }
+
+    def "comment streams should bypass the limiter"() {
+        given:
+        readLimiter.tryAcquire()
+        bulkLimiter.tryAcquire()
+        FilterChain chain = Mock()
+        MockHttpServletResponse response = new MockHttpServletResponse()
+
+        when:
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts/1/comments/stream"), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _)
+        response.status == 200
+        readLimiter.inflight == 1
+        bulkLimiter.inflight == 1
+    }
+}
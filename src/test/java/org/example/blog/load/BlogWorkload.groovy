@@ -0,0 +1,159 @@
+package org.example.blog.load
+
+import com.fasterxml.jackson.databind.ObjectMapper
+
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Mixed read/write traffic over every REST endpoint. Operations are picked at random by weight; reads
+ * target the seeded posts and comments, deletes only remove what the same worker created so workers
+ * never race each other into 404s.
+ */
+class BlogWorkload {
+
+    static final List<String> WORDS = ["spring", "oracle", "cache", "index", "latency", "batch", "query", "stream"]
+
+    private final HttpClient client
+    private final String baseUrl
+    private final ObjectMapper objectMapper = new ObjectMapper()
+    private final List<Long> postIds
+    private final List<Long> commentIds
+    private final Map<Long, Long> postOfComment
+
+    private final List<Map.Entry<String, Integer>> weights = [
+            "GET /posts"                   : 10,
+            "GET /posts/summaries"         : 5,
+            "GET /posts/search"            : 5,
+            "GET /posts/trending"          : 3,
+            "GET /posts/{id}"              : 25,
+            "GET /posts/{id}/comments"     : 10,
+            "GET /posts/{id}/comments/{id}": 10,
+            "GET /comments"                : 5,
+            "GET /comments/{id}"           : 5,
+            "GET /comments/export"         : 1,
+            "POST /posts"                  : 3,
+            "PUT /posts/{id}"              : 2,
+            "DELETE /posts/{id}"           : 1,
+            "POST /comments"               : 8,
+            "POST /comments/batch"         : 1,
+            "PUT /comments/{id}"           : 4,
+            "DELETE /comments/{id}"        : 2,
+            "DELETE /comments"             : 1,
+    ].entrySet().toList()
+
+    private final int totalWeight = weights.sum { it.value } as int
+
+    BlogWorkload(HttpClient client, String baseUrl, List<Long> postIds, Map<Long, Long> postOfComment) {
+        this.client = client
+        this.baseUrl = baseUrl
+        this.postIds = postIds
+        this.postOfComment = postOfComment
+        this.commentIds = new ArrayList<>(postOfComment.keySet())
+    }
+
+    /**
+     * Runs one randomly chosen operation and records its latency in {@code report}.
+     */
+    void step(Worker worker, LatencyReport report) {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight)
+        String operation = weights.find { (pick -= it.value) < 0 }.key
+        long started = System.nanoTime()
+        boolean ok = run(operation, worker)
+        report?.record(operation, System.nanoTime() - started, ok, worker.lastStatus == 503)
+    }
+
+    private boolean run(String operation, Worker worker) {
+        ThreadLocalRandom random = ThreadLocalRandom.current()
+        Long postId = postIds[random.nextInt(postIds.size())]
+        Long commentId = commentIds[random.nextInt(commentIds.size())]
+        switch (operation) {
+            case "GET /posts":
+                return send(worker, "GET", "/posts?limit=20").statusCode() == 200
+            case "GET /posts/summaries":
+                return send(worker, "GET", "/posts/summaries?limit=20").statusCode() == 200
+            case "GET /posts/search":
+                return send(worker, "GET", "/posts/search?q=${WORDS[random.nextInt(WORDS.size())]}").statusCode() == 200
+            case "GET /posts/trending":
+                return send(worker, "GET", "/posts/trending").statusCode() == 200
+            case "GET /posts/{id}":
+                return send(worker, "GET", "/posts/$postId").statusCode() == 200
+            case "GET /posts/{id}/comments":
+                return send(worker, "GET", "/posts/$postId/comments").statusCode() == 200
+            case "GET /posts/{id}/comments/{id}":
+                return send(worker, "GET", "/posts/${postOfComment[commentId]}/comments/$commentId").statusCode() == 200
+            case "GET /comments":
+                return send(worker, "GET", "/comments?limit=50").statusCode() == 200
+            case "GET /comments/{id}":
+                return send(worker, "GET", "/comments/$commentId").statusCode() == 200
+            case "GET /comments/export":
+                return send(worker, "GET", "/comments/export").statusCode() == 200
+            case "POST /posts":
+                return createPost(worker)
+            case "PUT /posts/{id}":
+                return send(worker, "PUT", "/posts/$postId", [title: "Updated " + text(), content: text()]).statusCode() == 200
+            case "DELETE /posts/{id}":
+                Long own = worker.ownPosts.poll()
+                return own == null ? createPost(worker) : send(worker, "DELETE", "/posts/$own").statusCode() == 200
+            case "POST /comments":
+                return createComment(worker, postId)
+            case "POST /comments/batch":
+                return send(worker, "POST", "/posts/$postId/comments/batch", (1..10).collect { [content: text()] }).statusCode() == 201
+            case "PUT /comments/{id}":
+                return send(worker, "PUT", "/posts/${postOfComment[commentId]}/comments/$commentId", [content: text()]).statusCode() == 200
+            case "DELETE /comments/{id}":
+                Map.Entry<Long, Long> ownComment = worker.ownComments.poll()
+                return ownComment == null ? createComment(worker, postId)
+                        : send(worker, "DELETE", "/posts/${ownComment.value}/comments/${ownComment.key}").statusCode() == 200
+            case "DELETE /comments":
+                Long ownPost = worker.ownPosts.peek()
+                return ownPost == null ? createPost(worker) : send(worker, "DELETE", "/posts/$ownPost/comments").statusCode() == 200
+            default:
+                throw new IllegalArgumentException(operation)
+        }
+    }
+
+    private boolean createPost(Worker worker) {
+        HttpResponse<String> response = send(worker, "POST", "/posts", [title: "Load " + text(), content: text()])
+        if (response.statusCode() != 201) {
+            return false
+        }
+        worker.ownPosts.add(objectMapper.readTree(response.body()).get("id").asLong())
+        true
+    }
+
+    private boolean createComment(Worker worker, Long postId) {
+        HttpResponse<String> response = send(worker, "POST", "/posts/$postId/comments", [content: text()])
+        if (response.statusCode() != 201) {
+            return false
+        }
+        worker.ownComments.add(new AbstractMap.SimpleEntry<>(objectMapper.readTree(response.body()).get("id").asLong(), postId))
+        true
+    }
+
+    private HttpResponse<String> send(Worker worker, String method, String path, Object body = null) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody())
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString())
+        worker.lastStatus = response.statusCode()
+        response
+    }
+
+    static String text() {
+        ThreadLocalRandom random = ThreadLocalRandom.current()
+        (1..8).collect { WORDS[random.nextInt(WORDS.size())] }.join(" ")
+    }
+
+    static class Worker {
+        final Deque<Long> ownPosts = new ArrayDeque<>()
+        final Deque<Map.Entry<Long, Long>> ownComments = new ArrayDeque<>()
+        int lastStatus
+    }
+}
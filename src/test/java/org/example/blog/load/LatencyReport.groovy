@@ -0,0 +1,71 @@
+package org.example.blog.load
+
+import org.HdrHistogram.Histogram
+
+/**
+ * Latencies per operation, recorded in microseconds. Each worker thread fills its own report and the
+ * reports are merged once the run is over, so recording never synchronises.
+ */
+class LatencyReport {
+
+    private static final long MAX_MICROS = 60_000_000L
+
+    final Map<String, Histogram> latencies = new TreeMap<>()
+    final Map<String, Long> errors = new TreeMap<>()
+    final Map<String, Long> shed = new TreeMap<>()
+
+    /**
+     * Records one request. Requests rejected by load shedding ({@code shed}) are counted apart from
+     * errors since answering 503 under overload is the intended behaviour.
+     */
+    void record(String operation, long nanos, boolean ok, boolean rejected) {
+        latencies.computeIfAbsent(operation) { new Histogram(MAX_MICROS, 3) }
+                .recordValue(Math.min(MAX_MICROS, Math.max(1L, (long) (nanos / 1000))))
+        if (rejected) {
+            shed.merge(operation, 1L, Long::sum)
+        } else if (!ok) {
+            errors.merge(operation, 1L, Long::sum)
+        }
+    }
+
+    void add(LatencyReport other) {
+        other.latencies.each { operation, histogram ->
+            latencies.computeIfAbsent(operation) { new Histogram(MAX_MICROS, 3) }.add(histogram)
+        }
+        other.errors.each { operation, count -> errors.merge(operation, count, Long::sum) }
+        other.shed.each { operation, count -> shed.merge(operation, count, Long::sum) }
+    }
+
+    long getTotalErrors() {
+        errors.values().sum(0L) as long
+    }
+
+    long getTotalShed() {
+        shed.values().sum(0L) as long
+    }
+
+    Histogram total() {
+        Histogram total = new Histogram(MAX_MICROS, 3)
+        latencies.values().each { total.add(it) }
+        total
+    }
+
+    String format(double seconds) {
+        StringBuilder out = new StringBuilder()
+        out << String.format("%-30s %9s %9s %9s %9s %9s %9s %7s %7s%n", "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "shed")
+        latencies.each { operation, histogram -> out << line(operation, histogram, errors.getOrDefault(operation, 0L), shed.getOrDefault(operation, 0L), seconds) }
+        out << line("TOTAL", total(), totalErrors, totalShed, seconds)
+        out.toString()
+    }
+
+    private static String line(String operation, Histogram histogram, long errors, long shed, double seconds) {
+        String.format("%-30s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %7d%n", operation, histogram.totalCount,
+                histogram.totalCount / seconds,
+                histogram.getValueAtPercentile(50) / 1000d,
+                histogram.getValueAtPercentile(99) / 1000d,
+                histogram.getValueAtPercentile(99.9) / 1000d,
+                histogram.maxValue / 1000d,
+                errors,
+                shed)
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.blog.load
+
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.PostRepository
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.web.server.LocalServerPort
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.net.http.HttpClient
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
+/**
+ * End-to-end load test against the application on a random port and the embedded test database.
+ * Skipped unless {@code blog.loadtest} is set; run it with {@code ./mvnw test -Ploadtest}. Volume and
+ * duration are tuned with system properties:
+ * <ul>
+ *     <li>{@code blog.loadtest.posts} and {@code blog.loadtest.comments-per-post}: seeded data</li>
+ *     <li>{@code blog.loadtest.threads}: concurrent clients</li>
+ *     <li>{@code blog.loadtest.warmup-seconds} and {@code blog.loadtest.duration-seconds}</li>
+ * </ul>
+ * The report is logged and written to {@code target/load-test-report.txt}. Requests answered 503 by the
+ * concurrency limiter are reported as shed, not as errors.
+ */
+@Requires({ sys["blog.loadtest"] })
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LoadTestSpec extends Specification {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestSpec)
+
+    @LocalServerPort
+    int port
+
+    @Autowired
+    PostRepository postRepository
+
+    def "sustains a mixed read/write workload without errors"() {
+        given:
+        int posts = Integer.getInteger("blog.loadtest.posts", 500)
+        int commentsPerPost = Integer.getInteger("blog.loadtest.comments-per-post", 20)
+        int threads = Integer.getInteger("blog.loadtest.threads", 16)
+        int warmupSeconds = Integer.getInteger("blog.loadtest.warmup-seconds", 10)
+        int durationSeconds = Integer.getInteger("blog.loadtest.duration-seconds", 30)
+
+        Map<Long, Long> postOfComment = [:]
+        List<Long> postIds = seed(posts, commentsPerPost, postOfComment)
+        BlogWorkload workload = new BlogWorkload(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "http://localhost:$port", postIds, postOfComment)
+
+        when:
+        runFor(workload, threads, warmupSeconds, false)
+        LatencyReport report = runFor(workload, threads, durationSeconds, true)
+        String table = report.format(durationSeconds)
+        log.info("Load test: {} posts, {} comments each, {} threads, {} s\n{}", posts, commentsPerPost, threads, durationSeconds, table)
+        Files.createDirectories(Paths.get("target"))
+        Files.writeString(Paths.get("target", "load-test-report.txt"), table)
+
+        then:
+        report.total().totalCount > 0
+        report.totalErrors == 0
+        report.totalShed < report.total().totalCount
+    }
+
+    private List<Long> seed(int posts, int commentsPerPost, Map<Long, Long> postOfComment) {
+        List<Long> ids = []
+        (1..posts).collate(100).each { chunk ->
+            List<Post> saved = postRepository.saveAll(chunk.collect { i ->
+                Post post = new Post(title: "Seeded post $i", content: BlogWorkload.text())
+                post.comments = (1..commentsPerPost).collect { new Comment(content: BlogWorkload.text(), post: post) }
+                post
+            })
+            saved.each { post ->
+                ids << post.id
+                post.comments.each { postOfComment[it.id] = post.id }
+            }
+        }
+        ids
+    }
+
+    private static LatencyReport runFor(BlogWorkload workload, int threads, int seconds, boolean measure) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads)
+        CountDownLatch start = new CountDownLatch(1)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds)
+        List<Future<LatencyReport>> results = (1..threads).collect {
+            pool.submit({
+                LatencyReport own = measure ? new LatencyReport() : null
+                BlogWorkload.Worker worker = new BlogWorkload.Worker()
+                start.await()
+                while (System.nanoTime() < deadline) {
+                    workload.step(worker, own)
+                }
+                own
+            } as java.util.concurrent.Callable<LatencyReport>)
+        }
+        start.countDown()
+        LatencyReport merged = new LatencyReport()
+        results.each { if (measure) merged.add(it.get()) else it.get() }
+        pool.shutdown()
+        merged
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.blog.metrics
+
+import ch.qos.logback.classic.Logger
+import ch.qos.logback.classic.spi.ILoggingEvent
+import ch.qos.logback.core.read.ListAppender
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.ttddyy.dsproxy.ExecutionInfo
+import net.ttddyy.dsproxy.QueryInfo
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.sql.PreparedStatement
+import java.sql.Types
+
+class SlowQueryLogSpec extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    ListAppender<ILoggingEvent> appender = new ListAppender<>()
+    Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLog)
+    PollingConditions conditions = new PollingConditions(timeout: 2)
+
+    def setup() {
+        appender.start()
+        logger.addAppender(appender)
+    }
+
+    def cleanup() {
+        logger.detachAppender(appender)
+    }
+
+    def "slow statements are logged with their parameters and caller and counted"() {
+        given:
+        SlowQueryLog slowQueryLog = new SlowQueryLog(meterRegistry, 100, 0, 10)
+        QueryInfo query = new QueryInfo("select * from posts where id = ? and title = ?")
+        query.parametersList << [setLong(1, 42L), setString(2, "x" * 150)]
+
+        when:
+        slowQueryLog.afterQuery(execution(250), [query])
+
+        then:
+        conditions.eventually {
+            assert appender.list.size() == 1
+        }
+        String message = appender.list[0].formattedMessage
+        message.startsWith("Slow query took 250 ms in SlowQueryLogSpec.")
+        message.contains("select * from posts where id = ? and title = ? [42, '${"x" * 100}...']")
+        meterRegistry.counter("jdbc.statements.slow").count() == 1
+
+        cleanup:
+        slowQueryLog.destroy()
+    }
+
+    def "fast statements are not logged unless sampled"() {
+        given:
+        SlowQueryLog quiet = new SlowQueryLog(meterRegistry, 100, 0, 10)
+        SlowQueryLog sampling = new SlowQueryLog(meterRegistry, 100, 1, 10)
+        QueryInfo query = new QueryInfo("update comments set content = ? where id = ?")
+        query.parametersList << [setNull(1), setLong(2, 1L)] << [setString(1, "a"), setLong(2, 2L)]
+
+        when:
+        quiet.afterQuery(execution(5), [query])
+        sampling.afterQuery(execution(5), [query])
+
+        then:
+        conditions.eventually {
+            assert appender.list*.formattedMessage.size() == 1
+        }
+        appender.list[0].formattedMessage.startsWith("Sampled query took 5 ms")
+        appender.list[0].formattedMessage.endsWith("update comments set content = ? where id = ? [null, 1], ['a', 2]")
+        meterRegistry.counter("jdbc.statements.slow").count() == 0
+
+        cleanup:
+        quiet.destroy()
+        sampling.destroy()
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        new ExecutionInfo(elapsedTime: elapsedMillis, success: true)
+    }
+
+    private static ParameterSetOperation setLong(int index, long value) {
+        new ParameterSetOperation(PreparedStatement.getMethod("setLong", int, long), [index, value] as Object[])
+    }
+
+    private static ParameterSetOperation setString(int index, String value) {
+        new ParameterSetOperation(PreparedStatement.getMethod("setString", int, String), [index, value] as Object[])
+    }
+
+    private static ParameterSetOperation setNull(int index) {
+        new ParameterSetOperation(PreparedStatement.getMethod("setNull", int, int), [index, Types.VARCHAR] as Object[])
+    }
+}
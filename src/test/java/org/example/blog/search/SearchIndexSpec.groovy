@@ -0,0 +1,91 @@
+package org.example.blog.search
+
+import spock.lang.Specification
+
+class SearchIndexSpec extends Specification {
+
+    SearchIndex index = new SearchIndex()
+
+    def "search should rank title matches above content and comment matches"() {
+        given:
+        index.indexPost(1L, "Cooking pasta", "A quick dinner")
+        index.indexPost(2L, "Weekend plans", "Maybe some pasta")
+        index.indexPost(3L, "Travel notes", "Nothing here")
+        index.indexComment(3L, 10L, "I love pasta")
+
+        when:
+        List<SearchHit> hits = index.search("pasta", 10)
+
+        then:
+        hits*.postId.first() == 1L
+        hits*.postId as Set == [1L, 2L, 3L] as Set
+    }
+
+    def "search should return at most the requested number of hits"() {
+        given:
+        (1..20).each { index.indexPost(it as Long, "Post $it", "shared words") }
+
+        expect:
+        index.search("shared", 5).size() == 5
+    }
+
+    def "search should be case insensitive and ignore punctuation"() {
+        given:
+        index.indexPost(1L, "Spring Boot!", "Hello, World.")
+
+        expect:
+        index.search("spring WORLD", 10)*.postId == [1L]
+    }
+
+    def "updating a post should replace its previous terms"() {
+        given:
+        index.indexPost(1L, "Old title", "old content")
+
+        when:
+        index.indexPost(1L, "New title", "new content")
+
+        then:
+        index.search("old", 10).isEmpty()
+        index.search("new", 10)*.title == ["New title"]
+    }
+
+    def "removing a comment should remove only its terms"() {
+        given:
+        index.indexPost(1L, "Post", "body")
+        index.indexComment(1L, 10L, "unicorn")
+        index.indexComment(1L, 11L, "dragon")
+
+        when:
+        index.removeComment(10L)
+
+        then:
+        index.search("unicorn", 10).isEmpty()
+        index.search("dragon", 10)*.postId == [1L]
+    }
+
+    def "removing a post should remove it together with its comments"() {
+        given:
+        index.indexPost(1L, "Post", "body")
+        index.indexComment(1L, 10L, "unicorn")
+
+        when:
+        index.removePost(1L)
+
+        then:
+        index.search("post unicorn", 10).isEmpty()
+        index.size() == 0
+    }
+
+    def "clearing comments should keep the post searchable"() {
+        given:
+        index.indexPost(1L, "Post", "body")
+        index.indexComment(1L, 10L, "unicorn")
+
+        when:
+        index.removeComments(1L)
+
+        then:
+        index.search("unicorn", 10).isEmpty()
+        index.search("post", 10)*.postId == [1L]
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.blog.service
+
+import org.example.blog.dto.CommentDto
+import org.example.blog.dto.PostDto
+import org.example.blog.event.CommentDeletedEvent
+import org.example.blog.event.CommentSavedEvent
+import org.example.blog.event.PostSavedEvent
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import spock.lang.Specification
+
+import javax.persistence.EntityManager
+import java.util.stream.Stream
+
+class SearchServiceSpec extends Specification {
+
+    PostRepository postRepository = Mock()
+    CommentRepository commentRepository = Mock()
+    SearchService searchService = new SearchService()
+
+    def setup() {
+        searchService.postRepository = postRepository
+        searchService.commentRepository = commentRepository
+        searchService.entityManager = Mock(EntityManager)
+        searchService.defaultLimit = 10
+        searchService.maxLimit = 100
+    }
+
+    def "updates made while the index is built win over the rows the build read"() {
+        given: "the build reads a post and a comment, and both change before it indexes them"
+        Post stale = new Post(id: 1L, title: "Draft", content: "Content")
+        Comment deleted = new Comment(id: 7L, content: "Obsolete", post: stale)
+        postRepository.streamAll() >> {
+            searchService.onPostSaved(new PostSavedEvent(new PostDto(id: 1L, title: "Published", content: "Content")))
+            Stream.of(stale)
+        }
+        commentRepository.streamAll() >> {
+            searchService.onCommentDeleted(new CommentDeletedEvent(1L, 7L))
+            searchService.onCommentSaved(new CommentSavedEvent(1L, new CommentDto(id: 8L, content: "Fresh"), true))
+            Stream.of(deleted)
+        }
+
+        when:
+        searchService.rebuildIndex()
+
+        then:
+        searchService.search("published", null)*.title == ["Published"]
+        searchService.search("draft", null).isEmpty()
+        searchService.search("obsolete", null).isEmpty()
+        searchService.search("fresh", null)*.id == [1L]
+    }
+
+    def "updates are applied straight away once the index is built"() {
+        given:
+        postRepository.streamAll() >> Stream.empty()
+        commentRepository.streamAll() >> Stream.empty()
+        searchService.rebuildIndex()
+
+        when:
+        searchService.onPostSaved(new PostSavedEvent(new PostDto(id: 2L, title: "Live", content: "Content")))
+
+        then:
+        searchService.search("live", null)*.id == [2L]
+    }
+
+    def "updates held back are replayed even when the build fails"() {
+        given:
+        postRepository.streamAll() >> {
+            searchService.onPostSaved(new PostSavedEvent(new PostDto(id: 3L, title: "Kept", content: "Content")))
+            throw new IllegalStateException("database gone")
+        }
+
+        when:
+        searchService.rebuildIndex()
+
+        then:
+        thrown(IllegalStateException)
+        searchService.search("kept", null)*.id == [3L]
+    }
+}
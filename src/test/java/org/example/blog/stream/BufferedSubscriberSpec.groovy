@@ -0,0 +1,141 @@
+package org.example.blog.stream
+
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+class BufferedSubscriberSpec extends Specification {
+
+    @AutoCleanup("shutdownNow")
+    ExecutorService executor = Executors.newFixedThreadPool(2)
+
+    AtomicInteger overflows = new AtomicInteger()
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    def "events should be written in order off the publishing thread"() {
+        given:
+        CommentFeedSpec.RecordingSubscriber client = new CommentFeedSpec.RecordingSubscriber()
+        BufferedSubscriber subscriber = new BufferedSubscriber(client, 100, executor, overflows.&incrementAndGet)
+
+        when:
+        (1..50).each { subscriber.send(new FeedEvent(it, 1L, "comment-created", "$it")) }
+
+        then:
+        conditions.eventually {
+            assert client.events*.id == (1L..50L)
+        }
+        overflows.get() == 0
+    }
+
+    def "a client that falls behind should be closed without blocking the feed"() {
+        given:
+        CountDownLatch stuck = new CountDownLatch(1)
+        SlowSubscriber client = new SlowSubscriber(stuck)
+        BufferedSubscriber subscriber = new BufferedSubscriber(client, 3, executor, overflows.&incrementAndGet)
+        subscriber.send(new FeedEvent(1, 1L, "comment-created", "1"))
+        conditions.eventually {
+            assert client.writing
+        }
+
+        when:
+        (2..4).each { subscriber.send(new FeedEvent(it, 1L, "comment-created", "$it")) }
+        subscriber.send(new FeedEvent(5, 1L, "comment-created", "5"))
+
+        then:
+        thrown(IOException)
+        overflows.get() == 1
+        !client.closed
+
+        when:
+        stuck.countDown()
+
+        then:
+        conditions.eventually {
+            assert client.closed
+        }
+        client.events*.id == [1L]
+    }
+
+    def "closing should write the queued events first"() {
+        given:
+        CommentFeedSpec.RecordingSubscriber client = new CommentFeedSpec.RecordingSubscriber()
+        BufferedSubscriber subscriber = new BufferedSubscriber(client, 10, executor, overflows.&incrementAndGet)
+
+        when:
+        subscriber.send(new FeedEvent(1, 1L, "post-deleted", "{}"))
+        subscriber.close()
+
+        then:
+        conditions.eventually {
+            assert client.closed
+        }
+        client.events*.name == ["post-deleted"]
+
+        when:
+        subscriber.send(new FeedEvent(2, 1L, "comment-created", "late"))
+
+        then:
+        thrown(IOException)
+    }
+
+    def "a client whose write fails should be closed"() {
+        given:
+        CommentFeedSpec.RecordingSubscriber client = new CommentFeedSpec.RecordingSubscriber(failing: true)
+        BufferedSubscriber subscriber = new BufferedSubscriber(client, 10, executor, overflows.&incrementAndGet)
+
+        when:
+        subscriber.send(new FeedEvent(1, 1L, "comment-created", "a"))
+
+        then:
+        conditions.eventually {
+            assert client.closed
+        }
+    }
+
+    def "a slow client should not delay the other subscribers of the feed"() {
+        given:
+        CommentFeed feed = new CommentFeed(10)
+        CountDownLatch stuck = new CountDownLatch(1)
+        SlowSubscriber slow = new SlowSubscriber(stuck)
+        CommentFeedSpec.RecordingSubscriber fast = new CommentFeedSpec.RecordingSubscriber()
+        feed.subscribe(1L, new BufferedSubscriber(slow, 2, executor, overflows.&incrementAndGet), null)
+        feed.subscribe(2L, new BufferedSubscriber(fast, 10, executor, overflows.&incrementAndGet), null)
+
+        when:
+        (1..5).each {
+            feed.publish(1L, "comment-created", "slow $it")
+            feed.publish(2L, "comment-created", "fast $it")
+        }
+
+        then:
+        conditions.eventually {
+            assert fast.events*.data == (1..5).collect { "fast $it" }
+        }
+        overflows.get() == 1
+        feed.subscriberCount() == 1
+
+        cleanup:
+        stuck.countDown()
+    }
+
+    static class SlowSubscriber extends CommentFeedSpec.RecordingSubscriber {
+        final CountDownLatch stuck
+        volatile boolean writing
+
+        SlowSubscriber(CountDownLatch stuck) {
+            this.stuck = stuck
+        }
+
+        @Override
+        void send(FeedEvent event) throws IOException {
+            writing = true
+            stuck.await()
+            super.send(event)
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.blog.stream
+
+import spock.lang.Specification
+
+class CommentFeedSpec extends Specification {
+
+    CommentFeed feed = new CommentFeed(3)
+
+    def "events should reach only the subscribers of their post"() {
+        given:
+        RecordingSubscriber first = new RecordingSubscriber()
+        RecordingSubscriber second = new RecordingSubscriber()
+        RecordingSubscriber other = new RecordingSubscriber()
+        feed.subscribe(1L, first, null)
+        feed.subscribe(1L, second, null)
+        feed.subscribe(2L, other, null)
+
+        when:
+        feed.publish(1L, "comment-created", '{"id":10}')
+
+        then:
+        first.events*.data == ['{"id":10}']
+        second.events*.data == ['{"id":10}']
+        other.events.empty
+    }
+
+    def "resuming should replay the events of the post after the last event id"() {
+        given:
+        FeedEvent seen = feed.publish(1L, "comment-created", "a")
+        feed.publish(2L, "comment-created", "b")
+        feed.publish(1L, "comment-updated", "c")
+        RecordingSubscriber subscriber = new RecordingSubscriber()
+
+        when:
+        feed.subscribe(1L, subscriber, seen.id)
+
+        then:
+        subscriber.events*.data == ["c"]
+    }
+
+    def "resuming from an event that is no longer buffered should send a reset"() {
+        given:
+        FeedEvent seen = feed.publish(1L, "comment-created", "a")
+        3.times { feed.publish(1L, "comment-created", "more") }
+        RecordingSubscriber subscriber = new RecordingSubscriber()
+
+        when:
+        feed.subscribe(1L, subscriber, seen.id - 1)
+
+        then:
+        subscriber.events*.name == [CommentFeed.RESET]
+    }
+
+    def "resuming from an id of an earlier run should send a reset"() {
+        given:
+        RecordingSubscriber subscriber = new RecordingSubscriber()
+
+        when:
+        feed.subscribe(1L, subscriber, 5L)
+
+        then:
+        subscriber.events*.name == [CommentFeed.RESET]
+    }
+
+    def "a failing subscriber should be dropped and closed"() {
+        given:
+        RecordingSubscriber broken = new RecordingSubscriber(failing: true)
+        feed.subscribe(1L, broken, null)
+
+        when:
+        feed.publish(1L, "comment-created", "a")
+
+        then:
+        broken.closed
+        feed.subscriberCount() == 0
+    }
+
+    def "closing a post should notify and close its subscribers"() {
+        given:
+        RecordingSubscriber subscriber = new RecordingSubscriber()
+        feed.subscribe(1L, subscriber, null)
+
+        when:
+        feed.close(1L, "post-deleted")
+
+        then:
+        subscriber.events*.name == ["post-deleted"]
+        subscriber.closed
+        feed.subscriberCount() == 0
+    }
+
+    static class RecordingSubscriber implements CommentFeed.Subscriber {
+        List<FeedEvent> events = Collections.synchronizedList([])
+        boolean failing
+        volatile boolean closed
+
+        @Override
+        void send(FeedEvent event) throws IOException {
+            if (failing) {
+                throw new IOException("gone")
+            }
+            events << event
+        }
+
+        @Override
+        void heartbeat() throws IOException {
+        }
+
+        @Override
+        void close() {
+            closed = true
+        }
+    }
+}
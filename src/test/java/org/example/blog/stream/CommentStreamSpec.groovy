@@ -0,0 +1,97 @@
+package org.example.blog.stream
+
+import io.micrometer.core.instrument.MeterRegistry
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentStreamSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    @Autowired
+    MeterRegistry meterRegistry
+
+    def cleanup() {
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "new comments are pushed to the stream of their post"() {
+        given:
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+        MockHttpServletResponse stream = mockMvc.perform(get("/posts/$postId/comments/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().response
+
+        when:
+        mockMvc.perform(post("/posts/$postId/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{ "content": "Hello stream" }'))
+                .andExpect(status().isCreated())
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            String body = stream.contentAsString
+            assert body.contains("event:comment-created")
+            assert body.contains("Hello stream")
+            assert body =~ /id:\d+/
+        }
+    }
+
+    def "streams for missing posts are refused and not kept open"() {
+        given:
+        int before = subscribers()
+
+        expect:
+        mockMvc.perform(get("/posts/999999/comments/stream")).andExpect(status().isNotFound())
+        subscribers() == before
+    }
+
+    def "deleting the post ends its streams"() {
+        given:
+        int before = subscribers()
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+        MockHttpServletResponse stream = mockMvc.perform(get("/posts/$postId/comments/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().response
+
+        when:
+        mockMvc.perform(delete("/posts/$postId")).andExpect(status().isOk())
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert stream.contentAsString.contains("event:post-deleted")
+            assert subscribers() == before
+        }
+    }
+
+    private int subscribers() {
+        meterRegistry.get("blog.comments.stream.subscribers").gauge().value()
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.blog.trending
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class TrendingTrackerSpec extends Specification {
+
+    TrendingTracker tracker = new TrendingTracker(3)
+
+    def "top should rank posts by their summed activity"() {
+        given:
+        tracker.record(1L, 1)
+        tracker.record(2L, 5)
+        tracker.record(3L, 1)
+        tracker.record(3L, 1)
+
+        expect:
+        tracker.top(10)*.postId == [2L, 3L, 1L]
+        tracker.top(10)*.score == [5L, 2L, 1L]
+    }
+
+    def "top should return at most k posts"() {
+        given:
+        (1..20).each { tracker.record(it as Long, it) }
+
+        expect:
+        tracker.top(5)*.postId == [20L, 19L, 18L, 17L, 16L]
+    }
+
+    def "activity should leave the window once its slot is old enough"() {
+        given:
+        tracker.record(1L, 10)
+        tracker.advance()
+        tracker.record(2L, 1)
+        tracker.advance()
+
+        expect:
+        tracker.top(10)*.postId == [1L, 2L]
+
+        when:
+        tracker.advance()
+
+        then:
+        tracker.top(10)*.postId == [2L]
+    }
+
+    def "forget should remove a post from every slot"() {
+        given:
+        tracker.record(1L, 1)
+        tracker.advance()
+        tracker.record(1L, 1)
+        tracker.record(2L, 1)
+
+        when:
+        tracker.forget(1L)
+
+        then:
+        tracker.top(10)*.postId == [2L]
+    }
+
+    def "concurrent records should not lose counts"() {
+        given:
+        def pool = Executors.newFixedThreadPool(8)
+
+        when:
+        8.times { pool.submit { 10_000.times { tracker.record((it % 4) as Long, 1) } } }
+        pool.shutdown()
+        pool.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        tracker.top(10)*.score == [20_000L, 20_000L, 20_000L, 20_000L]
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.blog.writebehind
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.example.blog.dto.CommentDto
+import org.example.blog.model.Comment
+import org.example.blog.model.Post
+import org.example.blog.repository.CommentRepository
+import org.example.blog.repository.PostRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.test.annotation.DirtiesContext
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+@SpringBootTest(properties = [
+        "blog.comments.write-behind.enabled=true",
+        "blog.comments.write-behind.max-batch-size=10",
+        "blog.comments.write-behind.flush-interval-ms=20"
+])
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentWriteBehindSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    @Autowired
+    PostRepository postRepository
+
+    @Autowired
+    CommentRepository commentRepository
+
+    @Autowired
+    CommentWriteBehind commentWriteBehind
+
+    def cleanup() {
+        commentRepository.deleteAll()
+        postRepository.deleteAll()
+    }
+
+    def "accepted comments are written later under the id returned to the client"() {
+        given:
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+
+        when:
+        List<Long> ids = (1..25).collect { i ->
+            def result = mockMvc.perform(post("/posts/$postId/comments")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""{ "content": "Comment $i" }"""))
+                    .andExpect(status().isAccepted())
+                    .andReturn()
+            objectMapper.readTree(result.response.contentAsString).get("id").asLong()
+        }
+
+        then:
+        ids.unique(false).size() == 25
+        new PollingConditions(timeout: 5).eventually {
+            assert commentRepository.findAllById(ids)*.id.sort() == ids.sort(false)
+        }
+        commentRepository.findAllById(ids).every { Comment comment -> comment.version == 0L }
+    }
+
+    def "comments for a missing post are refused up front"() {
+        expect:
+        mockMvc.perform(post("/posts/999999/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{ "content": "Lost" }'))
+                .andExpect(status().isNotFound())
+    }
+
+    def "comments without content are refused up front"() {
+        given:
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+
+        expect:
+        mockMvc.perform(post("/posts/$postId/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isBadRequest())
+
+        where:
+        body << ['{ }', '{ "content": null }', '{ "content": "  " }']
+    }
+
+    def "a comment that cannot be inserted does not take the rest of its batch with it"() {
+        given:
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+        List<Long> ids = (1..5).collect { commentWriteBehind.nextId() }
+        Long badId = commentWriteBehind.nextId()
+
+        when:
+        ids.each { id -> commentWriteBehind.offer(new PendingComment(postId, new CommentDto(id: id, content: "Comment $id", version: 0L))) }
+        commentWriteBehind.offer(new PendingComment(postId, new CommentDto(id: badId, content: null, version: 0L)))
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert commentRepository.findAllById(ids)*.id.sort() == ids.sort(false)
+        }
+        !commentRepository.existsById(badId)
+    }
+
+    @DirtiesContext
+    def "comments accepted before shutdown are written and later ones are refused"() {
+        given:
+        Long postId = postRepository.save(new Post(title: "Live", content: "Event")).id
+        List<Long> ids = (1..5).collect { commentWriteBehind.nextId() }
+        ids.each { id -> assert commentWriteBehind.offer(new PendingComment(postId, new CommentDto(id: id, content: "Comment $id", version: 0L))) }
+
+        when:
+        commentWriteBehind.stop()
+
+        then:
+        commentRepository.findAllById(ids)*.id.sort() == ids.sort(false)
+        !commentWriteBehind.offer(new PendingComment(postId, new CommentDto(id: commentWriteBehind.nextId(), content: "Late", version: 0L)))
+        mockMvc.perform(post("/posts/$postId/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{ "content": "Late" }'))
+                .andExpect(status().isServiceUnavailable())
+    }
+}